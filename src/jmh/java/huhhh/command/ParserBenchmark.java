@@ -0,0 +1,61 @@
+package huhhh.command;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import huhhh.HuhhhException;
+import huhhh.task.Task;
+
+/**
+ * Measures parsing of single commands, which happens once per line the user types.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+    public String indexAndTags = "12 #urgent #work #q3";
+    public String descriptionAndTags = "read the quarterly report #work #urgent before friday #q3";
+
+    /**
+     * One command of each common shape, kept apart so only {@link #parse} runs once per command.
+     */
+    @State(Scope.Benchmark)
+    public static class Commands {
+        @Param({
+            "list",
+            "todo read book #reading #home",
+            "deadline return book /by 2026-12-02",
+            "event project meeting /from 2026-08-06 2pm /to 4pm",
+            "mark 1-3,7",
+        })
+        public String command;
+    }
+
+    @Benchmark
+    public Parser.ParsedCommand parse(Commands commands) throws HuhhhException {
+        return Parser.parse(commands.command);
+    }
+
+    @Benchmark
+    public Parser.ParsedIndexAndTags parseIndexAndTags() throws HuhhhException {
+        return Parser.parseIndexAndTags(indexAndTags);
+    }
+
+    @Benchmark
+    public Task.ParsedTextWithTags parseDescriptionAndTags() {
+        return Task.parseDescriptionAndTags(descriptionAndTags);
+    }
+}
@@ -0,0 +1,86 @@
+package huhhh.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import huhhh.HuhhhException;
+import huhhh.task.SyntheticTasks;
+import huhhh.task.Task;
+
+/**
+ * Measures a full load and a full save of the text save file at increasing sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path directory;
+    private Storage loadStorage;
+    private Storage saveStorage;
+    private List<Task> tasks;
+
+    /**
+     * Writes a save file of {@code size} generated tasks for the load benchmark.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, HuhhhException {
+        directory = Files.createTempDirectory("huhhh-bench-");
+        tasks = SyntheticTasks.generate(size, 42);
+        loadStorage = new Storage(directory.resolve("load.txt"));
+        loadStorage.save(tasks);
+        saveStorage = new Storage(directory.resolve("save.txt"));
+    }
+
+    /**
+     * Deletes the save files and their backups.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Loads every task and reads each one, so lazily decoded formats are measured in full.
+     */
+    @Benchmark
+    public void load(Blackhole blackhole) throws HuhhhException {
+        for (Task task : loadStorage.load()) {
+            blackhole.consume(task);
+        }
+    }
+
+    @Benchmark
+    public void save() throws HuhhhException {
+        saveStorage.save(tasks);
+    }
+}
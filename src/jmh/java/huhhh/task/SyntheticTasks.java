@@ -0,0 +1,79 @@
+package huhhh.task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import huhhh.HuhhhException;
+
+/**
+ * Generates reproducible task lists of any size for benchmarks.
+ *
+ * <p>The mix is half todos, a quarter deadlines and a quarter scheduled events, a third of them done, with
+ * zero to two tags each drawn from {@value #TAG_COUNT} tags. Descriptions are drawn from a small vocabulary,
+ * so keyword searches match a realistic share of the list rather than all or none of it.</p>
+ */
+public final class SyntheticTasks {
+    public static final int TAG_COUNT = 50;
+    /** A word that appears in roughly one description in ten. */
+    public static final String SEARCH_KEYWORD = "report";
+    /** A tag carried by roughly one task in {@value #TAG_COUNT}. */
+    public static final String SEARCH_TAG = "#tag7";
+
+    private static final String[] WORDS = {
+        "read", "write", "report", "book", "call", "meeting", "review", "plan", "buy", "fix",
+        "clean", "email", "draft", "submit", "project", "budget", "lunch", "train", "gym", "doctor",
+    };
+    private static final LocalDate FIRST_DATE = LocalDate.of(2026, 1, 1);
+
+    private SyntheticTasks() {
+    }
+
+    /**
+     * Returns {@code count} tasks. The same count and seed always give the same tasks.
+     */
+    public static List<Task> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(generateTask(random));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns a list view of {@code count} generated tasks.
+     */
+    public static TaskList generateList(int count, long seed) {
+        return TaskList.wrap(generate(count, seed));
+    }
+
+    private static Task generateTask(Random random) {
+        String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                + " " + random.nextInt(1000);
+        LocalDate date = FIRST_DATE.plusDays(random.nextInt(730));
+        int kind = random.nextInt(4);
+        Task task;
+        if (kind < 2) {
+            task = new Todo(description);
+        } else if (kind == 2) {
+            task = new Deadline(description, date);
+        } else {
+            int hour = 8 + random.nextInt(10);
+            task = new Event(description, date + " " + hour + ":00", (hour + 1) + ":30");
+        }
+        if (random.nextInt(3) == 0) {
+            task.markAsDone();
+        }
+        int tags = random.nextInt(3);
+        try {
+            for (int i = 0; i < tags; i++) {
+                task.addTag("#tag" + random.nextInt(TAG_COUNT));
+            }
+        } catch (HuhhhException e) {
+            throw new IllegalStateException(e);
+        }
+        return task;
+    }
+}
@@ -0,0 +1,57 @@
+package huhhh.task;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the queries and the listing over lists of increasing size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TaskListBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private TaskList tasks;
+
+    /**
+     * Generates the list and runs each query once, so the lazily built indexes exist before timing starts.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = SyntheticTasks.generateList(size, 42);
+        tasks.findTasks(SyntheticTasks.SEARCH_KEYWORD);
+        tasks.findTasksByTag(SyntheticTasks.SEARCH_TAG);
+    }
+
+    @Benchmark
+    public TaskList findTasks() {
+        return tasks.findTasks(SyntheticTasks.SEARCH_KEYWORD);
+    }
+
+    @Benchmark
+    public TaskList findTasksByTag() {
+        return tasks.findTasksByTag(SyntheticTasks.SEARCH_TAG);
+    }
+
+    @Benchmark
+    public String render() {
+        return tasks.toString();
+    }
+}
@@ -1,16 +1,32 @@
 package huhhh;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 import huhhh.command.Parser;
+import huhhh.storage.Durability;
+import huhhh.storage.Mutation;
 import huhhh.storage.Storage;
+import huhhh.storage.WriteBehindPersister;
 import huhhh.task.Deadline;
 import huhhh.task.Event;
+import huhhh.task.TagQuery;
 import huhhh.task.Task;
 import huhhh.task.TaskList;
 import huhhh.task.Todo;
 import huhhh.ui.Logger;
+import huhhh.ui.TextUi;
 
 /**
  * The main application class for Huhhh task manager.
@@ -18,13 +34,19 @@ import huhhh.ui.Logger;
  * and data persistence.
  */
 public class Huhhh {
+    private static final int DUE_SOON_DAYS = 7;
+    private static final int BULK_PREVIEW_LIMIT = 10;
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+    private static final String USAGE = "Usage: huhhh.Huhhh [--checkpoint <commands>] [--data <save file>] [script]";
+
     private final Storage storage;
     private final TaskList tasks;
+    private final WriteBehindPersister persister;
 
     private boolean isExit = false;
 
     public Huhhh() {
-        this(new Storage());
+        this(new Storage(), Durability.BATCH_FSYNC);
     }
 
     /**
@@ -34,14 +56,71 @@ public class Huhhh {
      * @param filePath The file path for storing tasks.
      */
     public Huhhh(String filePath) {
+        this(filePath, Durability.BATCH_FSYNC);
+    }
+
+    /**
+     * Constructs a Huhhh application with the specified file path and durability level.
+     * If the file path is null or blank, uses the default storage location.
+     *
+     * @param filePath   The file path for storing tasks.
+     * @param durability How eagerly changes are written to disk.
+     */
+    public Huhhh(String filePath, Durability durability) {
         this(filePath == null || filePath.isBlank()
                 ? new Storage()
-                : new Storage(Paths.get(filePath)));
+                : new Storage(Paths.get(filePath), true), durability);
     }
 
-    private Huhhh(Storage storage) {
+    private Huhhh(Storage storage, Durability durability) {
         this.storage = storage;
         this.tasks = loadTasks();
+        this.persister = new WriteBehindPersister(storage, durability,
+                WriteBehindPersister.DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Runs Huhhh without a GUI, reading commands from the given script file or from standard input.
+     * Changes are kept in memory and saved at checkpoints and at the end of the input, not after every command.
+     *
+     * @param args Optional {@code --checkpoint <commands>} (0 saves only at the end),
+     *             {@code --data <save file>} and the path of a script of commands.
+     */
+    public static void main(String[] args) {
+        int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+        String dataFile = null;
+        String script = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case "--checkpoint":
+                    checkpointInterval = Integer.parseInt(args[++i]);
+                    break;
+                case "--data":
+                    dataFile = args[++i];
+                    break;
+                default:
+                    script = args[i];
+                    break;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            Logger.showError(USAGE);
+            System.exit(2);
+        }
+
+        Huhhh huhhh = new Huhhh(dataFile, Durability.DEFERRED);
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8)), false);
+        try (BufferedReader in = script == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+            new TextUi(out).run(huhhh, in, checkpointInterval);
+        } catch (IOException e) {
+            out.flush();
+            Logger.showError("Failed to read commands: " + e.getMessage());
+            System.exit(1);
+        }
     }
 
     /**
@@ -73,13 +152,41 @@ public class Huhhh {
     }
 
     /**
-     * Loads tasks from storage. If loading fails, initializes an empty task list
+     * Writes every change made so far to storage, for callers that defer persistence.
+     *
+     * @throws HuhhhException If the write fails.
+     */
+    public void checkpoint() throws HuhhhException {
+        persister.flush();
+    }
+
+    /**
+     * Saves any outstanding changes and releases the storage, as a BYE command would.
+     * Does nothing if the app has already exited.
+     *
+     * @throws HuhhhException If the final write fails.
+     */
+    public void close() throws HuhhhException {
+        if (!isExit) {
+            isExit = true;
+            persister.close();
+        }
+    }
+
+    /**
+     * Loads tasks from storage. Corrupted entries are skipped and reported.
+     * If loading fails entirely, initializes an empty task list.
      *
      * @return The loaded TaskList or an empty TaskList if loading fails.
      */
     private TaskList loadTasks() {
         try {
-            return new TaskList(storage.load());
+            List<String> skipped = new ArrayList<>();
+            TaskList loaded = TaskList.wrap(storage.load(skipped));
+            if (!skipped.isEmpty()) {
+                Logger.showSkippedEntries(skipped);
+            }
+            return loaded;
         } catch (HuhhhException e) {
             Logger.showLoadingError(e.getMessage());
             return new TaskList();
@@ -96,21 +203,28 @@ public class Huhhh {
     private String executeForResponse(Parser.ParsedCommand parsedCommand) throws HuhhhException {
         switch (parsedCommand.getCommand()) {
         case LIST:
-            return "Here are the tasks in your list:\n" + tasks;
+            return listTasks(Parser.parsePage(parsedCommand.getArguments()));
         case MARK: {
-            Task task = tasks.mark(Parser.parseIndex(parsedCommand.getArguments()));
-            persistTasks();
-            return "Nice! I've marked this task as done:\n  " + task;
+            int[] indices = resolveSelection(Parser.parseSelection(parsedCommand.getArguments()));
+            return describe(updateAll(indices, tasks::mark),
+                    "Nice! I've marked this task as done:\n  ", "Nice! I've marked these %d tasks as done:");
         }
         case UNMARK: {
-            Task task = tasks.unmark(Parser.parseIndex(parsedCommand.getArguments()));
-            persistTasks();
-            return "OK, I've marked this task as not done yet:\n  " + task;
+            int[] indices = resolveSelection(Parser.parseSelection(parsedCommand.getArguments()));
+            return describe(updateAll(indices, tasks::unmark),
+                    "OK, I've marked this task as not done yet:\n  ",
+                    "OK, I've marked these %d tasks as not done yet:");
         }
         case DELETE: {
-            Task task = tasks.delete(Parser.parseIndex(parsedCommand.getArguments()));
-            persistTasks();
-            return "Noted. I've removed this task:\n " + task
+            int[] indices = resolveSelection(Parser.parseSelection(parsedCommand.getArguments()));
+            List<Task> removed = tasks.deleteAll(indices);
+            List<Mutation> changes = new ArrayList<>(indices.length);
+            // Later positions go first, so each journaled delete still refers to the position it had.
+            for (int i = indices.length - 1; i >= 0; i--) {
+                changes.add(Mutation.deleted(indices[i]));
+            }
+            persistChanges(changes);
+            return describe(removed, "Noted. I've removed this task:\n ", "Noted. I've removed these %d tasks:")
                     + "\nNow you have " + tasks.size() + " tasks in the list.";
         }
         case TODO: {
@@ -136,31 +250,221 @@ public class Huhhh {
             if (keyword.isEmpty()) {
                 throw new HuhhhException("Find command requires a keyword to search for.\nUsage: find <keyword>");
             }
-            if (keyword.startsWith("#")) {
-                return "Here are the matching tasks with the tags:\n" + tasks.findTasksByTag(keyword);
+            if (TagQuery.isTagQuery(keyword)) {
+                return "Here are the matching tasks with the tags:\n" + tasks.findTasks(TagQuery.parse(keyword));
             }
             return "Here are the matching tasks in your list:\n" + tasks.findTasks(keyword);
         }
         case TAG: {
-            Parser.ParsedIndexAndTags parsed = Parser.parseIndexAndTags(parsedCommand.getArguments());
-            Task task = tasks.tag(parsed.getIndex(), parsed.getTags());
-            persistTasks();
-            return "Noted. I've tagged this task:\n  " + task;
+            Parser.ParsedSelectionAndTags parsed = Parser.parseSelectionAndTags(parsedCommand.getArguments());
+            int[] indices = resolveSelection(parsed.getSelection());
+            return describe(updateAll(indices, index -> tasks.tag(index, parsed.getTags())),
+                    "Noted. I've tagged this task:\n  ", "Noted. I've tagged these %d tasks:");
         }
         case UNTAG: {
-            Parser.ParsedIndexAndTags parsed = Parser.parseIndexAndTags(parsedCommand.getArguments());
-            Task task = tasks.untag(parsed.getIndex(), parsed.getTags());
-            persistTasks();
-            return "Noted. I've removed tag(s) from this task:\n  " + task;
+            Parser.ParsedSelectionAndTags parsed = Parser.parseSelectionAndTags(parsedCommand.getArguments());
+            int[] indices = resolveSelection(parsed.getSelection());
+            return describe(updateAll(indices, index -> tasks.untag(index, parsed.getTags())),
+                    "Noted. I've removed tag(s) from this task:\n  ",
+                    "Noted. I've removed tag(s) from these %d tasks:");
+        }
+        case DUE: {
+            String arguments = parsedCommand.getArguments().trim();
+            LocalDate from = LocalDate.MIN;
+            LocalDate to;
+            if (arguments.isEmpty()) {
+                from = LocalDate.now();
+                to = from.plusDays(DUE_SOON_DAYS);
+            } else if (arguments.startsWith("between")) {
+                Parser.ParsedDateRange range = Parser.parseDateRange(arguments.substring("between".length()));
+                from = range.getFrom();
+                to = range.getTo();
+            } else {
+                to = Parser.parseDate(arguments);
+            }
+            return "Here are the deadlines due " + (from.equals(LocalDate.MIN) ? "by " + to : from + " to " + to)
+                    + ":\n" + tasks.findDeadlinesBetween(from, to);
+        }
+        case OVERDUE:
+            return "Here are your overdue deadlines:\n" + tasks.findOverdue(LocalDate.now());
+        case EVENTS: {
+            String arguments = parsedCommand.getArguments().trim();
+            LocalDate from;
+            LocalDate to;
+            if (arguments.startsWith("on ")) {
+                from = Parser.parseDate(arguments.substring("on ".length()));
+                to = from;
+            } else if (arguments.startsWith("between")) {
+                Parser.ParsedDateRange range = Parser.parseDateRange(arguments.substring("between".length()));
+                from = range.getFrom();
+                to = range.getTo();
+            } else {
+                throw new HuhhhException("Events command requires a date or a date range.\n"
+                        + "Usage: events on <date> | events between <date> <date>");
+            }
+            return "Here are the events " + (from.equals(to) ? "on " + from : "from " + from + " to " + to)
+                    + ":\n" + tasks.findEventsBetween(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        }
+        case CONFLICTS: {
+            List<Event[]> conflicts = tasks.findConflicts();
+            if (conflicts.isEmpty()) {
+                return "You have no conflicting events.";
+            }
+            StringBuilder response = new StringBuilder("Here are the conflicting events:");
+            for (int i = 0; i < conflicts.size(); i++) {
+                response.append("\n").append(i + 1).append(". ").append(conflicts.get(i)[0])
+                        .append("\n   clashes with ").append(conflicts.get(i)[1]);
+            }
+            return response.toString();
         }
         case BYE:
-            isExit = true;
+            close();
             return "Bye. Hope to see you again soon!";
         default:
             throw new HuhhhException("I'm sorry, but I don't know what that means :(");
         }
     }
 
+    /**
+     * Lists one page of tasks, building only that page's lines, with a footer when the list does not fit.
+     *
+     * @param page The page to show and the page size.
+     * @return The response text.
+     * @throws HuhhhException If the page is past the end of the list.
+     */
+    private String listTasks(Parser.ParsedPage page) throws HuhhhException {
+        int size = tasks.size();
+        long start = (long) (page.getPage() - 1) * page.getPageSize();
+        if (size > 0 && start >= size) {
+            int pages = (int) ((size + (long) page.getPageSize() - 1) / page.getPageSize());
+            throw new HuhhhException("There is no page " + page.getPage() + "; the list has " + pages
+                    + (pages == 1 ? " page." : " pages."));
+        }
+        int from = (int) start;
+        int to = (int) Math.min(size, start + page.getPageSize());
+        String response = "Here are the tasks in your list:\n" + tasks.render(from, to);
+        if (from == 0 && to == size) {
+            return response;
+        }
+        String limit = page.getPageSize() == Parser.DEFAULT_PAGE_SIZE ? "" : " --limit " + page.getPageSize();
+        return response + "\nShowing tasks " + (from + 1) + "-" + to + " of " + size + "."
+                + (to < size ? " Type 'list page " + (page.getPage() + 1) + limit + "' for more." : "");
+    }
+
+    /**
+     * Resolves a parsed task reference to the task's current 0-based index.
+     */
+    private int resolveIndex(Parser.ParsedReference reference) throws HuhhhException {
+        return reference.isId() ? tasks.indexOfId(reference.getValue()) : reference.getValue();
+    }
+
+    /**
+     * Resolves a parsed selector to the current indices of the selected tasks, once, before any are changed.
+     * Ids inside an id range that no longer exist are skipped; an id or position named on its own must exist.
+     *
+     * @param selection The parsed selector.
+     * @return The distinct 0-based indices of the selected tasks, in ascending order.
+     * @throws HuhhhException If a position is out of bounds, a named id does not exist, or nothing is selected.
+     */
+    private int[] resolveSelection(Parser.ParsedSelection selection) throws HuhhhException {
+        int[] indices;
+        switch (selection.getKind()) {
+        case DONE:
+            indices = tasks.indicesMatching(Task::isDone);
+            break;
+        case UNDONE:
+            indices = tasks.indicesMatching(task -> !task.isDone());
+            break;
+        case ALL:
+            indices = tasks.indicesMatching(task -> true);
+            break;
+        case FIND: {
+            String keyword = selection.getKeyword();
+            indices = tasks.indicesMatching(keyword.startsWith("#")
+                    ? task -> task.hasTag(keyword)
+                    : task -> task.containsKeyword(keyword));
+            break;
+        }
+        default: {
+            BitSet selected = new BitSet();
+            for (Parser.ParsedReference[] range : selection.getRanges()) {
+                Parser.ParsedReference from = range[0];
+                Parser.ParsedReference to = range[1];
+                if (from == to) {
+                    selected.set(checkedIndex(resolveIndex(from)));
+                } else if (from.isId()) {
+                    selected.set(tasks.countIdsUpTo(from.getValue() - 1), tasks.countIdsUpTo(to.getValue()));
+                } else {
+                    selected.set(checkedIndex(from.getValue()), checkedIndex(to.getValue()) + 1);
+                }
+            }
+            indices = selected.stream().toArray();
+            break;
+        }
+        }
+        if (indices.length == 0) {
+            throw new HuhhhException("No tasks matched your selection.");
+        }
+        return indices;
+    }
+
+    private int checkedIndex(int index) throws HuhhhException {
+        if (index < 0 || index >= tasks.size()) {
+            throw new HuhhhException("Task index out of bounds. You have " + tasks.size() + " tasks.");
+        }
+        return index;
+    }
+
+    /**
+     * Applies an in-place update to each selected task and persists all the changes together.
+     * If an update fails part-way, the tasks already updated are still persisted before the error is reported.
+     *
+     * @param indices The indices of the tasks to update.
+     * @param update  The update to apply at each index.
+     * @return The updated tasks, in list order.
+     * @throws HuhhhException If an update or the save fails.
+     */
+    private List<Task> updateAll(int[] indices, TaskUpdate update) throws HuhhhException {
+        List<Task> updated = new ArrayList<>(indices.length);
+        List<Mutation> changes = new ArrayList<>(indices.length);
+        try {
+            for (int index : indices) {
+                Task task = update.apply(index);
+                updated.add(task);
+                changes.add(Mutation.updated(index, task));
+            }
+        } finally {
+            if (!changes.isEmpty()) {
+                persistChanges(changes);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Describes the tasks changed by a command, using the single-task message when only one was changed.
+     * Long selections list the first few tasks and a count of the rest.
+     *
+     * @param changed The changed tasks.
+     * @param single  The message prefix for one task, which is followed directly by the task.
+     * @param plural  The message heading for several tasks, with a {@code %d} for the count.
+     * @return The response text.
+     */
+    private static String describe(List<Task> changed, String single, String plural) {
+        if (changed.size() == 1) {
+            return single + changed.get(0);
+        }
+        StringBuilder response = new StringBuilder(String.format(plural, changed.size()));
+        int shown = Math.min(changed.size(), BULK_PREVIEW_LIMIT);
+        for (int i = 0; i < shown; i++) {
+            response.append("\n  ").append(changed.get(i));
+        }
+        if (changed.size() > shown) {
+            response.append("\n  ...and ").append(changed.size() - shown).append(" more");
+        }
+        return response.toString();
+    }
+
     private Task createTodo(String arguments) throws HuhhhException {
         Task.ParsedTextWithTags parsed = Task.parseDescriptionAndTags(arguments);
         String description = parsed.getText().trim();
@@ -249,15 +553,33 @@ public class Huhhh {
      */
     private void addTask(Task task) throws HuhhhException {
         tasks.add(task);
-        persistTasks();
+        persistChange(Mutation.added(task));
     }
 
     /**
-     * Persists the current task list to storage.
+     * Hands a change to the task list over to the persister, which may write it in the background.
      *
+     * @param change The change that was just applied to the task list.
      * @throws HuhhhException If an error occurs during saving.
      */
-    private void persistTasks() throws HuhhhException {
-        storage.save(tasks);
+    private void persistChange(Mutation change) throws HuhhhException {
+        persister.record(tasks, change);
+    }
+
+    /**
+     * Hands the changes made by one bulk command over to the persister as a single batch.
+     *
+     * @param changes The changes that were just applied to the task list, in order.
+     * @throws HuhhhException If an error occurs during saving.
+     */
+    private void persistChanges(List<Mutation> changes) throws HuhhhException {
+        persister.record(tasks, changes);
+    }
+
+    /**
+     * An in-place change to the task at an index.
+     */
+    private interface TaskUpdate {
+        Task apply(int index) throws HuhhhException;
     }
 }
@@ -4,7 +4,24 @@ package huhhh.command;
  * Enum representing the various commands supported by the Huhhh application.
  */
 public enum Command {
-    LIST, MARK, UNMARK, DELETE, TODO, DEADLINE, EVENT, FIND, TAG, UNTAG, BYE, UNKNOWN;
+    LIST, MARK, UNMARK, DELETE, TODO, DEADLINE, EVENT, FIND, TAG, UNTAG, DUE, OVERDUE, EVENTS, CONFLICTS, BYE,
+    UNKNOWN;
+
+    /** Open-addressed table of the keywords, indexed by a case-insensitive hash of their names. */
+    private static final Command[] KEYWORDS = new Command[64];
+    private static final int MASK = KEYWORDS.length - 1;
+
+    static {
+        for (Command command : values()) {
+            if (command != UNKNOWN) {
+                int slot = hash(command.name(), 0, command.name().length()) & MASK;
+                while (KEYWORDS[slot] != null) {
+                    slot = (slot + 1) & MASK;
+                }
+                KEYWORDS[slot] = command;
+            }
+        }
+    }
 
     /**
      * Converts a string input to its corresponding Command enum value.
@@ -14,13 +31,51 @@ public enum Command {
      * @return The corresponding Command enum value.
      */
     public static Command fromString(String input) {
-        if (input == null || input.trim().isEmpty()) {
+        if (input == null) {
             return UNKNOWN;
         }
-        try {
-            return Command.valueOf(input.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            return UNKNOWN;
+        return fromChars(input, 0, input.length());
+    }
+
+    /**
+     * Returns the command whose name matches the given characters, ignoring ASCII case, or UNKNOWN.
+     * Looks the word up in place, so nothing is allocated and no exception is thrown for unknown words.
+     *
+     * @param input The characters holding the word.
+     * @param start The index of the word's first character.
+     * @param end   The index just past the word's last character.
+     * @return The matching command, or UNKNOWN.
+     */
+    public static Command fromChars(CharSequence input, int start, int end) {
+        for (int slot = hash(input, start, end) & MASK; KEYWORDS[slot] != null; slot = (slot + 1) & MASK) {
+            if (matches(KEYWORDS[slot].name(), input, start, end)) {
+                return KEYWORDS[slot];
+            }
         }
+        return UNKNOWN;
+    }
+
+    private static int hash(CharSequence input, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + toUpperAscii(input.charAt(i));
+        }
+        return hash;
+    }
+
+    private static boolean matches(String name, CharSequence input, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (toUpperAscii(input.charAt(start + i)) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toUpperAscii(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
     }
 }
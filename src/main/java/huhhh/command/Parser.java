@@ -2,9 +2,8 @@ package huhhh.command;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import huhhh.HuhhhException;
 
@@ -12,6 +11,13 @@ import huhhh.HuhhhException;
  * Parser class to handle parsing of user input commands and arguments.
  */
 public class Parser {
+    private static final String SELECTION_USAGE =
+            "Select tasks with <n>, <n>-<m>, a comma-separated list of these, done, undone, all or find:<keyword>.";
+    private static final String FIND_PREFIX = "find:";
+    private static final String LIST_USAGE = "Usage: list [page <n>] [--limit <n>]";
+    /** The number of tasks a list command shows when no limit is given. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
     /**
      * Parses the full command string into a ParsedCommand object which can be
      * used to get the command and its arguments.
@@ -24,18 +30,26 @@ public class Parser {
         if (fullCommand == null) {
             throw new HuhhhException("Command cannot be null.");
         }
-        String trimmed = fullCommand.trim();
-        if (trimmed.isEmpty()) {
+        // Scans the line once by index instead of trimming and splitting it, so that only the arguments
+        // substring and the result are allocated.
+        int start = skipBlanks(fullCommand, 0);
+        int end = fullCommand.length();
+        while (end > start && fullCommand.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
             throw new HuhhhException("Command cannot be empty.");
         }
-        String[] parts = trimmed.split(" ", 2);
-        assert parts.length >= 1 : "Splitting a non-empty command should yield at least 1 token";
+        int wordEnd = fullCommand.indexOf(' ', start);
+        if (wordEnd < 0 || wordEnd > end) {
+            wordEnd = end;
+        }
 
-        Command command = Command.fromString(parts[0]);
+        Command command = Command.fromChars(fullCommand, start, wordEnd);
         if (command == Command.UNKNOWN) {
             throw new HuhhhException("I'm sorry, but I don't know what that means :(");
         }
-        String arguments = parts.length > 1 ? parts[1] : "";
+        String arguments = wordEnd == end ? "" : fullCommand.substring(wordEnd + 1, end);
         ParsedCommand parsed = new ParsedCommand(command, arguments);
         assert parsed.getCommand() != null && parsed.getCommand() != Command.UNKNOWN
                 : "Parsed command should be a known command";
@@ -57,6 +71,127 @@ public class Parser {
         }
     }
 
+    /**
+     * Parses a task reference: either a 1-based position, or a task id written as {@code @id}.
+     * Ids stay the same while the list is loaded, but are numbered afresh each time it is loaded.
+     *
+     * @param input The user input representing the task.
+     * @return The parsed reference, holding a 0-based index or a task id.
+     * @throws HuhhhException If the input is neither a valid position nor a valid id.
+     */
+    public static ParsedReference parseReference(String input) throws HuhhhException {
+        String trimmed = input.trim();
+        if (!trimmed.startsWith("@")) {
+            return new ParsedReference(false, parseIndex(trimmed));
+        }
+        try {
+            return new ParsedReference(true, Integer.parseInt(trimmed.substring(1)));
+        } catch (NumberFormatException e) {
+            throw new HuhhhException(String.format("Invalid task id provided: %s.", input));
+        }
+    }
+
+    /**
+     * Parses a task selector, which picks out one or more tasks for a bulk command.
+     * A selector is one of:
+     * <ul>
+     *   <li>a comma-separated list of positions, ids and inclusive ranges, e.g. {@code 3,7,9-20} or {@code @4-@9}</li>
+     *   <li>{@code done}, {@code undone} or {@code all}</li>
+     *   <li>{@code find:<keyword>}, or {@code find:#tag} for the tasks with a tag</li>
+     * </ul>
+     *
+     * @param input The user input representing the selector.
+     * @return The parsed selection.
+     * @throws HuhhhException If the selector is empty or malformed.
+     */
+    public static ParsedSelection parseSelection(String input) throws HuhhhException {
+        String trimmed = input == null ? "" : input.trim();
+        if (trimmed.isEmpty()) {
+            throw new HuhhhException("Expected the tasks to act on. " + SELECTION_USAGE);
+        }
+        switch (trimmed.toLowerCase()) {
+        case "done":
+            return new ParsedSelection(ParsedSelection.Kind.DONE, List.of(), null);
+        case "undone":
+            return new ParsedSelection(ParsedSelection.Kind.UNDONE, List.of(), null);
+        case "all":
+            return new ParsedSelection(ParsedSelection.Kind.ALL, List.of(), null);
+        default:
+            break;
+        }
+        if (trimmed.regionMatches(true, 0, FIND_PREFIX, 0, FIND_PREFIX.length())) {
+            String keyword = trimmed.substring(FIND_PREFIX.length()).trim();
+            if (keyword.isEmpty()) {
+                throw new HuhhhException("Expected a keyword after find:. " + SELECTION_USAGE);
+            }
+            return new ParsedSelection(ParsedSelection.Kind.FIND, List.of(), keyword);
+        }
+
+        List<ParsedReference[]> ranges = new ArrayList<>();
+        for (String item : trimmed.split(",")) {
+            if (item.isBlank()) {
+                throw new HuhhhException("Invalid task selector: " + trimmed + ". " + SELECTION_USAGE);
+            }
+            // Searching from 1 leaves a leading minus sign to parseReference, so "-1" is a bad index, not a range.
+            int dash = item.indexOf('-', 1);
+            if (dash < 0) {
+                ParsedReference reference = parseReference(item);
+                ranges.add(new ParsedReference[] {reference, reference});
+                continue;
+            }
+            ParsedReference from = parseReference(item.substring(0, dash));
+            ParsedReference to = parseReference(item.substring(dash + 1));
+            if (from.isId() != to.isId()) {
+                throw new HuhhhException("A range must use either positions or ids at both ends: " + item.trim());
+            }
+            if (from.getValue() > to.getValue()) {
+                throw new HuhhhException("The start of a range must not be after its end: " + item.trim());
+            }
+            ranges.add(new ParsedReference[] {from, to});
+        }
+        return new ParsedSelection(ParsedSelection.Kind.RANGES, ranges, null);
+    }
+
+    /**
+     * Parses the arguments of a list command: an optional "page n" and an optional "--limit n", in either order.
+     *
+     * @param rawArguments The raw argument string.
+     * @return The 1-based page and the page size, which is {@link #DEFAULT_PAGE_SIZE} unless limited.
+     * @throws HuhhhException If an option is unknown, repeated or not a positive number.
+     */
+    public static ParsedPage parsePage(String rawArguments) throws HuhhhException {
+        List<String> parts = splitWords(rawArguments);
+        int page = 0;
+        int pageSize = 0;
+        for (int i = 0; i < parts.size(); i += 2) {
+            String option = parts.get(i);
+            if (i + 1 >= parts.size()) {
+                throw new HuhhhException("Expected a number after " + option + ". " + LIST_USAGE);
+            }
+            int value = parsePositive(parts.get(i + 1));
+            if (option.equalsIgnoreCase("page") && page == 0) {
+                page = value;
+            } else if (option.equalsIgnoreCase("--limit") && pageSize == 0) {
+                pageSize = value;
+            } else {
+                throw new HuhhhException("Unexpected list option: " + option + ". " + LIST_USAGE);
+            }
+        }
+        return new ParsedPage(page == 0 ? 1 : page, pageSize == 0 ? DEFAULT_PAGE_SIZE : pageSize);
+    }
+
+    private static int parsePositive(String input) throws HuhhhException {
+        try {
+            int value = Integer.parseInt(input);
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below with the usage.
+        }
+        throw new HuhhhException("Expected a positive number but got: " + input + ". " + LIST_USAGE);
+    }
+
     /**
      * Parses a date string in the format yyyy-mm-dd.
      *
@@ -72,6 +207,26 @@ public class Parser {
         }
     }
 
+    /**
+     * Parses arguments in the form: "yyyy-mm-dd yyyy-mm-dd".
+     *
+     * @param rawArguments The raw argument string.
+     * @return The inclusive date range.
+     * @throws HuhhhException If there are not exactly two valid dates, or the first is after the second.
+     */
+    public static ParsedDateRange parseDateRange(String rawArguments) throws HuhhhException {
+        List<String> parts = splitWords(rawArguments);
+        if (parts.size() != 2) {
+            throw new HuhhhException("Expected two dates. Usage: between <yyyy-mm-dd> <yyyy-mm-dd>");
+        }
+        LocalDate from = parseDate(parts.get(0));
+        LocalDate to = parseDate(parts.get(1));
+        if (from.isAfter(to)) {
+            throw new HuhhhException("The first date must not be after the second date.");
+        }
+        return new ParsedDateRange(from, to);
+    }
+
     /**
      * Parses arguments in the form: "index #tag [#tag...]".
      *
@@ -80,24 +235,75 @@ public class Parser {
      * @throws HuhhhException If parsing fails.
      */
     public static ParsedIndexAndTags parseIndexAndTags(String rawArguments) throws HuhhhException {
-        if (rawArguments == null || rawArguments.trim().isEmpty()) {
+        List<String> parts = splitWords(rawArguments);
+        if (parts.size() < 2) {
             throw new HuhhhException("Expected an index and at least one tag. Usage: (un)tag <index> #tag [#tag...]");
         }
-        String[] parts = rawArguments.trim().split("\\s+");
-        if (parts.length < 2) {
-            throw new HuhhhException("Expected an index and at least one tag. Usage: (un)tag <index> #tag [#tag...]");
+        ParsedReference reference = parseReference(parts.get(0));
+        return new ParsedIndexAndTags(reference, parseTags(parts));
+    }
+
+    /**
+     * Parses arguments in the form: "selector #tag [#tag...]", where the selector is as for
+     * {@link #parseSelection(String)} and contains no spaces.
+     *
+     * @param rawArguments The raw argument string.
+     * @return A pair of (selection, list of raw tag tokens).
+     * @throws HuhhhException If parsing fails.
+     */
+    public static ParsedSelectionAndTags parseSelectionAndTags(String rawArguments) throws HuhhhException {
+        List<String> parts = splitWords(rawArguments);
+        if (parts.size() < 2) {
+            throw new HuhhhException("Expected the tasks and at least one tag. Usage: (un)tag <tasks> #tag [#tag...]");
         }
-        int index = parseIndex(parts[0]);
-        List<String> tags = Arrays.stream(parts)
-                .skip(1)
-                .filter(t -> !t.isBlank())
-                .collect(Collectors.toList());
+        ParsedSelection selection = parseSelection(parts.get(0));
+        return new ParsedSelectionAndTags(selection, parseTags(parts));
+    }
+
+    /**
+     * Collects the tag tokens that follow the first token, checking that each starts with '#'.
+     */
+    private static List<String> parseTags(List<String> parts) throws HuhhhException {
+        List<String> tags = parts.subList(1, parts.size());
         for (String t : tags) {
             if (!t.startsWith("#")) {
                 throw new HuhhhException("Tags must start with '#'. Invalid tag: " + t);
             }
         }
-        return new ParsedIndexAndTags(index, tags);
+        return tags;
+    }
+
+    /**
+     * Splits the input into words separated by whitespace in a single pass, without a regular expression.
+     * Returns an empty list for null or blank input.
+     */
+    static List<String> splitWords(String input) {
+        List<String> words = new ArrayList<>();
+        if (input == null) {
+            return words;
+        }
+        int i = skipBlanks(input, 0);
+        while (i < input.length()) {
+            int wordEnd = i;
+            while (wordEnd < input.length() && input.charAt(wordEnd) > ' ') {
+                wordEnd++;
+            }
+            words.add(input.substring(i, wordEnd));
+            i = skipBlanks(input, wordEnd);
+        }
+        return words;
+    }
+
+    /**
+     * Returns the index of the first character at or after {@code from} that is not whitespace or a control
+     * character, as {@link String#trim()} decides, or the input's length if there is none.
+     */
+    static int skipBlanks(CharSequence input, int from) {
+        int i = from;
+        while (i < input.length() && input.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
     }
 
     /**
@@ -127,11 +333,37 @@ public class Parser {
         }
     }
 
+    /**
+     * Holder for a task reference, which is either a 0-based index or a stable task id.
+     */
+    public static class ParsedReference {
+        private final boolean isId;
+        private final int value;
+
+        /**
+         * Constructs a ParsedReference.
+         * @param isId Whether the value is a task id rather than a 0-based index
+         * @param value The 0-based index or the task id
+         */
+        public ParsedReference(boolean isId, int value) {
+            this.isId = isId;
+            this.value = value;
+        }
+
+        public boolean isId() {
+            return isId;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+
     /**
      * Holder for an index + tags argument parse.
      */
     public static class ParsedIndexAndTags {
-        private final int index;
+        private final ParsedReference reference;
         private final List<String> tags;
 
         /**
@@ -140,16 +372,156 @@ public class Parser {
          * @param tags List of raw tag tokens
          */
         public ParsedIndexAndTags(int index, List<String> tags) {
-            this.index = index;
+            this(new ParsedReference(false, index), tags);
+        }
+
+        /**
+         * Constructs a ParsedIndexAndTags with the given task reference and tags.
+         * @param reference Task index or id
+         * @param tags List of raw tag tokens
+         */
+        public ParsedIndexAndTags(ParsedReference reference, List<String> tags) {
+            this.reference = reference;
             this.tags = tags;
         }
 
+        /**
+         * Returns the 0-based index of a task referred to by position.
+         * Use {@link #getReference()} to also accept a task referred to by id.
+         *
+         * @throws IllegalStateException If the task was referred to by id.
+         */
         public int getIndex() {
-            return index;
+            if (reference.isId()) {
+                throw new IllegalStateException("The task was referred to by id; use getReference()");
+            }
+            return reference.getValue();
+        }
+
+        public ParsedReference getReference() {
+            return reference;
         }
 
         public List<String> getTags() {
             return tags;
         }
     }
+
+    /**
+     * Holder for a task selector.
+     */
+    public static class ParsedSelection {
+        /**
+         * The ways a selector can pick out tasks.
+         */
+        public enum Kind {
+            RANGES, DONE, UNDONE, ALL, FIND
+        }
+
+        private final Kind kind;
+        private final List<ParsedReference[]> ranges;
+        private final String keyword;
+
+        /**
+         * Constructs a ParsedSelection.
+         * @param kind How the tasks are selected
+         * @param ranges Inclusive {start, end} reference pairs, for a RANGES selection
+         * @param keyword The keyword or #tag, for a FIND selection
+         */
+        public ParsedSelection(Kind kind, List<ParsedReference[]> ranges, String keyword) {
+            this.kind = kind;
+            this.ranges = ranges;
+            this.keyword = keyword;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public List<ParsedReference[]> getRanges() {
+            return ranges;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+    }
+
+    /**
+     * Holder for a selection + tags argument parse.
+     */
+    public static class ParsedSelectionAndTags {
+        private final ParsedSelection selection;
+        private final List<String> tags;
+
+        /**
+         * Constructs a ParsedSelectionAndTags with the given selection and tags.
+         * @param selection The selected tasks
+         * @param tags List of raw tag tokens
+         */
+        public ParsedSelectionAndTags(ParsedSelection selection, List<String> tags) {
+            this.selection = selection;
+            this.tags = tags;
+        }
+
+        public ParsedSelection getSelection() {
+            return selection;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+    }
+
+    /**
+     * Holder for a page of a listing.
+     */
+    public static class ParsedPage {
+        private final int page;
+        private final int pageSize;
+
+        /**
+         * Constructs a ParsedPage.
+         * @param page 1-based page number
+         * @param pageSize Number of tasks per page
+         */
+        public ParsedPage(int page, int pageSize) {
+            this.page = page;
+            this.pageSize = pageSize;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+    }
+
+    /**
+     * Holder for an inclusive date range.
+     */
+    public static class ParsedDateRange {
+        private final LocalDate from;
+        private final LocalDate to;
+
+        /**
+         * Constructs a ParsedDateRange with the given bounds.
+         * @param from First date in the range
+         * @param to Last date in the range
+         */
+        public ParsedDateRange(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        public LocalDate getTo() {
+            return to;
+        }
+    }
 }
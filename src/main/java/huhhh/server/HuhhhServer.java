@@ -0,0 +1,219 @@
+package huhhh.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import huhhh.ui.Logger;
+
+/**
+ * Serves Huhhh to many users over a line-based TCP protocol, with one thread per connection.
+ *
+ * <p>A client first sends {@code user <name>}, then one command per line. Each response is sent as one or more
+ * lines followed by an empty line. {@code bye} ends the connection and leaves the user's tasks loaded for their
+ * other connections. Every user has their own save file in the data directory; loaded users are kept in a
+ * {@link SessionCache}, which unloads the least recently used idle users.</p>
+ *
+ * <p>Connections run on virtual threads where the runtime supports them, so thousands of idle connections
+ * cost little; on older runtimes they fall back to a cached pool of platform threads.</p>
+ */
+public class HuhhhServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7878;
+    public static final int DEFAULT_MAX_LOADED_USERS = 256;
+    private static final int MAX_USER_NAME_LENGTH = 32;
+    private static final String BYE = "Bye. Hope to see you again soon!";
+
+    private final ServerSocket serverSocket;
+    private final SessionCache sessions;
+    private final ExecutorService connections = newConnectionExecutor();
+
+    /**
+     * Creates a server listening on the loopback interface.
+     *
+     * @param port           The port to listen on, or 0 for any free port.
+     * @param dataDirectory  The directory holding one save file per user.
+     * @param maxLoadedUsers The number of idle users kept loaded in memory.
+     * @throws IOException If the port cannot be bound or the data directory cannot be created.
+     */
+    public HuhhhServer(int port, Path dataDirectory, int maxLoadedUsers) throws IOException {
+        Files.createDirectories(dataDirectory);
+        this.sessions = new SessionCache(dataDirectory, maxLoadedUsers);
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Starts the server with optional {@code --port <port>}, {@code --data-dir <directory>}
+     * and {@code --max-users <count>} arguments.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        Path dataDirectory = Paths.get("data", "users");
+        int maxLoadedUsers = DEFAULT_MAX_LOADED_USERS;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--data-dir":
+                    dataDirectory = Paths.get(args[i + 1]);
+                    break;
+                case "--max-users":
+                    maxLoadedUsers = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            Logger.showError("Usage: huhhh.server.HuhhhServer [--port <port>] [--data-dir <directory>]"
+                    + " [--max-users <count>]");
+            System.exit(2);
+        }
+        HuhhhServer server = new HuhhhServer(port, dataDirectory, maxLoadedUsers);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "huhhh-server-shutdown"));
+        server.serve();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed, handling each on its own thread.
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    Logger.showError("Failed to accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and saves and unloads every user.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Nothing more to release.
+        }
+        connections.shutdownNow();
+        sessions.closeAll();
+    }
+
+    int loadedUserCount() {
+        return sessions.size();
+    }
+
+    private void handle(Socket socket) {
+        SessionCache.Session session = null;
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.trim();
+                if (command.isEmpty()) {
+                    continue;
+                }
+                if (session == null) {
+                    String user = parseUser(command);
+                    if (user == null) {
+                        respond(out, "Please identify yourself first.\nUsage: user <name>, using up to "
+                                + MAX_USER_NAME_LENGTH + " letters, digits, '-' or '_'");
+                        continue;
+                    }
+                    session = sessions.acquire(user);
+                    respond(out, "Hello " + user + "! I'm Huhhh\nWhat can I do for you?");
+                } else if (SessionCache.isBye(command)) {
+                    // Release before replying, so the user is already idle when the client sees the reply.
+                    sessions.release(session);
+                    session = null;
+                    respond(out, BYE);
+                    return;
+                } else {
+                    respond(out, session.execute(command));
+                }
+            }
+        } catch (SocketException e) {
+            // The client went away or the server is closing.
+        } catch (IOException e) {
+            Logger.showError("Connection failed: " + e.getMessage());
+        } finally {
+            if (session != null) {
+                sessions.release(session);
+            }
+        }
+    }
+
+    private static void respond(Writer out, String response) throws IOException {
+        out.write(response);
+        out.write("\n\n");
+        out.flush();
+    }
+
+    /**
+     * Returns the user name in a {@code user <name>} line in lower case, or null if the line is not one or the name
+     * is unsafe to use as a file name. Names differing only in case are the same user, as they would share a save
+     * file on a case-insensitive file system.
+     */
+    static String parseUser(String line) {
+        String[] parts = line.split("\\s+");
+        if (parts.length != 2 || !parts[0].equalsIgnoreCase("user")) {
+            return null;
+        }
+        String name = parts[1];
+        if (name.length() > MAX_USER_NAME_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(Character.isLetterOrDigit(c) && c < 128) && c != '-' && c != '_') {
+                return null;
+            }
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when the runtime has one, or else a cached thread pool.
+     * The virtual thread executor is looked up reflectively so that the code still builds for Java 17.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "huhhh-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package huhhh.server;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import huhhh.Huhhh;
+import huhhh.HuhhhException;
+import huhhh.command.Command;
+import huhhh.command.Parser;
+import huhhh.storage.Durability;
+import huhhh.ui.Logger;
+
+/**
+ * Keeps the loaded {@link Huhhh} instance of each user, evicting the least recently used idle users
+ * once more than a fixed number are loaded.
+ *
+ * <p>Connections acquire a user's session and release it when they end; a session in use by any connection
+ * is never evicted, so the cache can exceed its capacity while that many users are connected at once.
+ * An evicted session is closed, which saves its tasks, and is loaded again from disk on the next acquire.</p>
+ *
+ * <p>The cache lock only guards the bookkeeping. Loading and closing sessions read and write files, so they
+ * happen outside it and one slow file never holds up other users. A user's session is loaded by the
+ * connection that found it missing, while other connections for that user wait on it; a session is only
+ * loaded once the user's previous session, if it was evicted, has finished closing.</p>
+ */
+class SessionCache {
+    private final Path dataDirectory;
+    private final int capacity;
+    /** Loaded sessions, least recently used first. Guarded by this. */
+    private final Map<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    /** The most recently evicted session of each user whose close has not finished. Guarded by this. */
+    private final Map<String, Session> closing = new HashMap<>();
+
+    /**
+     * A user's loaded task list and the number of connections using it.
+     */
+    static class Session {
+        private final String user;
+        private final CompletableFuture<Huhhh> loaded = new CompletableFuture<>();
+        private final CompletableFuture<Void> closed = new CompletableFuture<>();
+        /** Not a monitor, so that virtual threads waiting on a command's save do not pin their carriers. */
+        private final ReentrantLock lock = new ReentrantLock();
+        /** Guarded by the cache. */
+        private int users;
+
+        private Session(String user) {
+            this.user = user;
+        }
+
+        /**
+         * Runs one command for this user. Commands from the user's connections are run one at a time.
+         * {@code bye} is refused, as it would close the task list that the user's other connections share.
+         */
+        String execute(String command) {
+            if (isBye(command)) {
+                throw new IllegalArgumentException("bye ends a connection and must not reach the shared session");
+            }
+            Huhhh huhhh = loaded.join();
+            lock.lock();
+            try {
+                return huhhh.getResponse(command);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the line is a {@code bye} command, with or without arguments.
+     */
+    static boolean isBye(String command) {
+        try {
+            return Parser.parse(command).getCommand() == Command.BYE;
+        } catch (HuhhhException e) {
+            return false;
+        }
+    }
+
+    SessionCache(Path dataDirectory, int capacity) {
+        this.dataDirectory = dataDirectory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the given user's session, loading it if needed, and marks it as in use.
+     *
+     * @param user A user name that is safe to use as a file name.
+     * @return The user's session, which must be passed to {@link #release(Session)} when the connection ends.
+     */
+    Session acquire(String user) {
+        Session session;
+        Session previous = null;
+        boolean isLoader = false;
+        List<Session> evicted;
+        synchronized (this) {
+            session = sessions.get(user);
+            if (session == null) {
+                session = new Session(user);
+                sessions.put(user, session);
+                previous = closing.get(user);
+                isLoader = true;
+            }
+            session.users++;
+            evicted = evictIdle();
+        }
+        closeAll(evicted);
+        if (isLoader) {
+            load(session, previous);
+        }
+        session.loaded.join();
+        return session;
+    }
+
+    /**
+     * Marks a session as no longer used by one connection, making it eligible for eviction.
+     */
+    void release(Session session) {
+        List<Session> evicted;
+        synchronized (this) {
+            session.users--;
+            evicted = evictIdle();
+        }
+        closeAll(evicted);
+    }
+
+    synchronized int size() {
+        return sessions.size();
+    }
+
+    synchronized boolean isLoaded(String user) {
+        return sessions.containsKey(user);
+    }
+
+    /**
+     * Closes every loaded session, saving each user's tasks.
+     */
+    void closeAll() {
+        List<Session> all;
+        synchronized (this) {
+            all = new ArrayList<>(sessions.values());
+            sessions.clear();
+        }
+        closeAll(all);
+    }
+
+    private void load(Session session, Session previous) {
+        try {
+            if (previous != null) {
+                previous.closed.join();
+            }
+            String saveFile = dataDirectory.resolve(session.user + ".txt").toString();
+            session.loaded.complete(new Huhhh(saveFile, Durability.PER_COMMAND));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                sessions.remove(session.user, session);
+            }
+            session.loaded.completeExceptionally(e);
+            session.closed.complete(null);
+        }
+    }
+
+    /**
+     * Removes idle sessions beyond the capacity and returns them, to be closed once the cache is unlocked.
+     */
+    private List<Session> evictIdle() {
+        List<Session> evicted = new ArrayList<>();
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (sessions.size() > capacity && iterator.hasNext()) {
+            Session session = iterator.next();
+            if (session.users == 0) {
+                iterator.remove();
+                closing.put(session.user, session);
+                evicted.add(session);
+            }
+        }
+        return evicted;
+    }
+
+    private void closeAll(List<Session> toClose) {
+        for (Session session : toClose) {
+            close(session);
+            synchronized (this) {
+                closing.remove(session.user, session);
+            }
+            session.closed.complete(null);
+        }
+    }
+
+    private static void close(Session session) {
+        Huhhh huhhh;
+        try {
+            huhhh = session.loaded.join();
+        } catch (CompletionException e) {
+            // It never loaded, so there is nothing to save.
+            return;
+        }
+        session.lock.lock();
+        try {
+            huhhh.close();
+        } catch (HuhhhException e) {
+            Logger.showError(e.getMessage());
+        } finally {
+            session.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package huhhh.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import huhhh.HuhhhException;
+import huhhh.task.Deadline;
+import huhhh.task.Event;
+import huhhh.task.Task;
+import huhhh.task.Todo;
+
+/**
+ * Compact, length-prefixed binary save format.
+ *
+ * <p>Layout: the magic {@code HUHB}, a version byte, a tag dictionary (count, then each tag name),
+ * the task count, and one length-prefixed record per task. A record holds a type byte with the done flag
+ * packed into its high bit, the description, the type-specific fields (deadlines as epoch-day ints)
+ * and the task's tags as dictionary ids. All counts and lengths are unsigned varints and all strings
+ * are length-prefixed UTF-8, so descriptions may contain any character, including {@code |}.</p>
+ *
+ * <p>Version 2 appends a fixed-layout index after the records: one 4-byte offset per record, followed by
+ * a 12-byte footer holding the index position, the record count and a CRC32 of everything before the footer.
+ * This lets {@link MappedTaskList} find any record without reading the ones before it, and identify the file
+ * without hashing it. Version 1 files are still read.</p>
+ *
+ * <p>Single records written outside a save file, such as journal payloads, store tag names inline.</p>
+ */
+class BinaryCodec implements TaskCodec {
+    static final int VERSION = 2;
+    static final int FOOTER_LENGTH = 12;
+    static final int HEADER_LENGTH = 5;
+
+    private static final byte[] MAGIC = {'H', 'U', 'H', 'B'};
+    private static final int TYPE_TODO = 1;
+    private static final int TYPE_DEADLINE = 2;
+    private static final int TYPE_EVENT = 3;
+    private static final int TYPE_MASK = 0x7f;
+    private static final int DONE_FLAG = 0x80;
+
+    /**
+     * Returns true if the given file contents start with the binary format's magic.
+     */
+    static boolean hasHeader(byte[] bytes) {
+        return bytes.length >= MAGIC.length && Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    @Override
+    public List<Task> decode(byte[] bytes) throws HuhhhException {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (hasIndex(bytes)) {
+            verifyChecksum(in);
+        }
+        try {
+            String[] dictionary = readHeader(in);
+            int count = readCount(in);
+            List<Task> loaded = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = readVarInt(in);
+                int end = in.position() + length;
+                loaded.add(readTask(in, dictionary));
+                if (in.position() != end) {
+                    throw new CorruptedSaveFileException("Corrupted binary save entry #" + (i + 1));
+                }
+            }
+            if (hasIndex(bytes) && in.remaining() != 4 * count + FOOTER_LENGTH) {
+                throw new CorruptedSaveFileException("Corrupted binary save file index");
+            }
+            return loaded;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new CorruptedSaveFileException("Corrupted binary save file");
+        }
+    }
+
+    @Override
+    public byte[] encode(List<Task> tasks) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            for (String tag : task.getTags()) {
+                dictionary.putIfAbsent(tag, dictionary.size());
+            }
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            writeVarInt(out, dictionary.size());
+            for (String tag : dictionary.keySet()) {
+                writeString(out, tag);
+            }
+            writeVarInt(out, tasks.size());
+            int[] offsets = new int[tasks.size()];
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            DataOutputStream recordOut = new DataOutputStream(record);
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = out.size();
+                record.reset();
+                writeTask(recordOut, tasks.get(i), dictionary);
+                writeVarInt(out, record.size());
+                record.writeTo(out);
+            }
+            int indexPosition = out.size();
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            out.writeInt(indexPosition);
+            out.writeInt(offsets.length);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.toByteArray());
+            out.writeInt((int) crc.getValue());
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the magic, version and tag dictionary, leaving the buffer positioned after the dictionary.
+     *
+     * @return The tag dictionary.
+     * @throws HuhhhException If the version is not supported.
+     */
+    static String[] readHeader(ByteBuffer in) throws HuhhhException {
+        in.position(MAGIC.length);
+        int version = in.get() & 0xff;
+        if (version < 1 || version > VERSION) {
+            throw new HuhhhException("Unsupported save file version: " + version);
+        }
+        String[] dictionary = new String[readCount(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(in);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Returns true if the given file starts with a binary header of a version that has a record index.
+     */
+    static boolean hasIndex(byte[] header) {
+        return hasHeader(header) && header.length >= HEADER_LENGTH && header[MAGIC.length] >= 2;
+    }
+
+    /**
+     * Checks the footer checksum of an indexed binary save file against its contents.
+     *
+     * @throws CorruptedSaveFileException If the file is too short or the checksum does not match.
+     */
+    static void verifyChecksum(ByteBuffer in) throws CorruptedSaveFileException {
+        if (in.limit() < HEADER_LENGTH + FOOTER_LENGTH) {
+            throw new CorruptedSaveFileException("Corrupted binary save file");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(in.duplicate().position(0).limit(in.limit() - 4));
+        if (crc.getValue() != storedChecksum(in)) {
+            throw new CorruptedSaveFileException("Save file failed its checksum check");
+        }
+    }
+
+    /**
+     * Returns the checksum stored in the footer of an indexed binary save file.
+     */
+    static long storedChecksum(ByteBuffer in) {
+        return in.getInt(in.limit() - 4) & 0xffffffffL;
+    }
+
+    /**
+     * Decodes the length-prefixed record starting at the given offset.
+     *
+     * @throws HuhhhException If the record is corrupted.
+     */
+    static Task decodeRecord(ByteBuffer in, int offset, String[] dictionary) throws HuhhhException {
+        try {
+            ByteBuffer record = in.duplicate();
+            record.position(offset);
+            readVarInt(record);
+            return readTask(record, dictionary);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new HuhhhException("Corrupted binary save entry at offset " + offset);
+        }
+    }
+
+    /**
+     * Encodes a single task with its tag names inline.
+     */
+    static byte[] encodeTask(Task task) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            writeTask(new DataOutputStream(buffer), task, null);
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes a single task written by {@link #encodeTask(Task)}.
+     *
+     * @throws HuhhhException If the bytes are corrupted.
+     */
+    static Task decodeTask(byte[] bytes) throws HuhhhException {
+        try {
+            return readTask(ByteBuffer.wrap(bytes), null);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new HuhhhException("Corrupted binary task record");
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, Task task, Map<String, Integer> dictionary)
+            throws IOException {
+        int doneFlag = task.isDone() ? DONE_FLAG : 0;
+        if (task instanceof Deadline) {
+            out.writeByte(TYPE_DEADLINE | doneFlag);
+            writeString(out, task.getDescription());
+            out.writeInt((int) ((Deadline) task).getBy().toEpochDay());
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            out.writeByte(TYPE_EVENT | doneFlag);
+            writeString(out, task.getDescription());
+            writeString(out, event.getFrom());
+            writeString(out, event.getTo());
+        } else {
+            out.writeByte(TYPE_TODO | doneFlag);
+            writeString(out, task.getDescription());
+        }
+        writeVarInt(out, task.getTags().size());
+        for (String tag : task.getTags()) {
+            if (dictionary == null) {
+                writeString(out, tag);
+            } else {
+                writeVarInt(out, dictionary.get(tag));
+            }
+        }
+    }
+
+    private static Task readTask(ByteBuffer in, String[] dictionary) throws HuhhhException {
+        int header = in.get() & 0xff;
+        String description = readString(in);
+        Task task;
+        switch (header & TYPE_MASK) {
+        case TYPE_TODO:
+            task = new Todo(description);
+            break;
+        case TYPE_DEADLINE:
+            task = new Deadline(description, LocalDate.ofEpochDay(in.getInt()));
+            break;
+        case TYPE_EVENT:
+            String from = readString(in);
+            task = new Event(description, from, readString(in));
+            break;
+        default:
+            throw new HuhhhException("Unknown task type in binary save: " + (header & TYPE_MASK));
+        }
+        int tagCount = readCount(in);
+        for (int i = 0; i < tagCount; i++) {
+            task.loadTagsFromStorageField(dictionary == null ? readString(in) : dictionary[readVarInt(in)]);
+        }
+        if ((header & DONE_FLAG) != 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0) {
+            out.writeByte((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Reads a count of items that follow in the buffer. Every item takes at least one byte, so a count larger
+     * than the bytes left, like a negative one, can only come from a corrupted file and is rejected before
+     * anything is allocated for it.
+     *
+     * @throws CorruptedSaveFileException If the count is negative or larger than the bytes remaining.
+     */
+    static int readCount(ByteBuffer in) throws CorruptedSaveFileException {
+        int count = readVarInt(in);
+        if (count < 0 || count > in.remaining()) {
+            throw new CorruptedSaveFileException("Corrupted binary save file: invalid count " + count);
+        }
+        return count;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Malformed string length");
+        }
+        if (in.hasArray()) {
+            String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
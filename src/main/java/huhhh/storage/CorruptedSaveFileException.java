@@ -0,0 +1,13 @@
+package huhhh.storage;
+
+import huhhh.HuhhhException;
+
+/**
+ * Signals that a save file as a whole failed its integrity check, as opposed to a single bad entry.
+ * {@link Storage} recovers from it by falling back to a backup.
+ */
+class CorruptedSaveFileException extends HuhhhException {
+    CorruptedSaveFileException(String message) {
+        super(message);
+    }
+}
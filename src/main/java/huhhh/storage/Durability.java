@@ -0,0 +1,15 @@
+package huhhh.storage;
+
+/**
+ * How eagerly the {@link WriteBehindPersister} pushes changes to disk, trading command latency for safety.
+ */
+public enum Durability {
+    /** Each change is written and fsynced before the command returns. */
+    PER_COMMAND,
+    /** Changes are grouped and written on a background thread, with one fsync per batch. */
+    BATCH_FSYNC,
+    /** Changes are grouped and written on a background thread, leaving the flush to disk to the OS. */
+    BEST_EFFORT,
+    /** Changes are kept in memory and written only when flushed explicitly or on close, e.g. at batch checkpoints. */
+    DEFERRED
+}
@@ -0,0 +1,228 @@
+package huhhh.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of {@link Mutation}s kept next to the snapshot file.
+ * Each record is length-prefixed and checksummed, so a torn write at the tail is detected and dropped on replay.
+ *
+ * <p>Before a journal is folded into the snapshot it is sealed: renamed to
+ * {@code <snapshot>.journal.<crc>.<seq>}, where {@code crc} is the checksum of the snapshot it applies to.
+ * A sealed journal whose checksum no longer matches the snapshot has already been folded in and is stale.</p>
+ */
+class Journal {
+    private static final String SUFFIX = ".journal";
+    private static final int MAX_PAYLOAD_LENGTH = 1 << 20;
+
+    private final Path file;
+    private FileChannel channel;
+    private int recordCount;
+    private long byteCount;
+
+    Journal(Path snapshotFile) {
+        this.file = activePath(snapshotFile);
+    }
+
+    /**
+     * Starts a fresh, empty journal. Any previous active journal must have been replayed or sealed.
+     */
+    void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        recordCount = 0;
+        byteCount = 0;
+    }
+
+    /**
+     * Appends the given mutations as one write.
+     *
+     * @param mutations Mutations in the order they were applied.
+     * @param isForced  Whether to fsync the journal before returning.
+     */
+    void append(List<Mutation> mutations, boolean isForced) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        for (Mutation mutation : mutations) {
+            writeRecord(out, mutation);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        if (isForced) {
+            channel.force(false);
+        }
+        recordCount += mutations.size();
+        byteCount += buffer.size();
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Closes the active journal and renames it to a sealed journal based on the given snapshot checksum.
+     */
+    void seal(Path snapshotFile, long snapshotChecksum) throws IOException {
+        close();
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        String prefix = sealedPrefix(snapshotFile, snapshotChecksum);
+        int seq = 1;
+        for (Path sealed : findSealed(snapshotFile, snapshotChecksum)) {
+            seq = Math.max(seq, sequenceOf(sealed, prefix) + 1);
+        }
+        Files.move(file, snapshotFile.resolveSibling(prefix + seq), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    static Path activePath(Path snapshotFile) {
+        return snapshotFile.resolveSibling(snapshotFile.getFileName() + SUFFIX);
+    }
+
+    private static String sealedPrefix(Path snapshotFile, long snapshotChecksum) {
+        return snapshotFile.getFileName() + SUFFIX + "." + Long.toHexString(snapshotChecksum) + ".";
+    }
+
+    /**
+     * Returns the sealed journals that apply to the snapshot with the given checksum, in replay order.
+     */
+    static List<Path> findSealed(Path snapshotFile, long snapshotChecksum) throws IOException {
+        String prefix = sealedPrefix(snapshotFile, snapshotChecksum);
+        List<Path> sealed = new ArrayList<>();
+        for (Path path : listSealed(snapshotFile)) {
+            if (path.getFileName().toString().startsWith(prefix)) {
+                sealed.add(path);
+            }
+        }
+        sealed.sort(Comparator.comparingInt(path -> sequenceOf(path, prefix)));
+        return sealed;
+    }
+
+    /**
+     * Deletes the sealed journals that apply to the snapshot with the given checksum.
+     */
+    static void deleteSealed(Path snapshotFile, long snapshotChecksum) throws IOException {
+        for (Path path : findSealed(snapshotFile, snapshotChecksum)) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Deletes every sealed journal, whichever snapshot it was based on.
+     */
+    static void deleteAllSealed(Path snapshotFile) throws IOException {
+        for (Path path : listSealed(snapshotFile)) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static List<Path> listSealed(Path snapshotFile) throws IOException {
+        Path dir = snapshotFile.toAbsolutePath().getParent();
+        List<Path> sealed = new ArrayList<>();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return sealed;
+        }
+        String glob = snapshotFile.getFileName() + SUFFIX + ".*";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            stream.forEach(sealed::add);
+        }
+        return sealed;
+    }
+
+    private static int sequenceOf(Path path, String prefix) {
+        try {
+            return Integer.parseInt(path.getFileName().toString().substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Reads all intact records from a journal file. Reading stops at the first torn or corrupted record.
+     *
+     * @param file The journal file.
+     * @return The recorded mutations, or an empty list if the file does not exist.
+     */
+    static List<Mutation> read(Path file) throws IOException {
+        List<Mutation> mutations = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return mutations;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Mutation mutation = readRecord(in);
+            while (mutation != null) {
+                mutations.add(mutation);
+                mutation = readRecord(in);
+            }
+        }
+        return mutations;
+    }
+
+    private static void writeRecord(DataOutputStream out, Mutation mutation) throws IOException {
+        byte[] payload = mutation.getPayload();
+        int op = mutation.getType().ordinal();
+        out.writeByte(op);
+        out.writeInt(mutation.getIndex());
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt(checksum(op, mutation.getIndex(), payload));
+    }
+
+    private static Mutation readRecord(DataInputStream in) throws IOException {
+        try {
+            int op = in.read();
+            if (op < 0) {
+                return null;
+            }
+            int index = in.readInt();
+            int length = in.readInt();
+            if (op >= Mutation.Type.values().length || length < 0 || length > MAX_PAYLOAD_LENGTH) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            if (in.readInt() != checksum(op, index, payload)) {
+                return null;
+            }
+            return new Mutation(Mutation.Type.values()[op], index, payload);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static int checksum(int op, int index, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(9).put((byte) op).putInt(index).putInt(payload.length).flip());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
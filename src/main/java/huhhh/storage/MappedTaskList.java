@@ -0,0 +1,251 @@
+package huhhh.storage;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import huhhh.HuhhhException;
+import huhhh.task.Task;
+
+/**
+ * A mutable list of tasks backed by a memory-mapped, indexed binary save file.
+ *
+ * <p>Opening the list reads the header, tag dictionary and footer, then makes two sequential passes over the
+ * mapped file: one computes its checksum, and one checks that each index entry points at the end of the
+ * record before it. Opening therefore takes time linear in the file size, but it allocates nothing per task
+ * and decodes no task, so heap use does not grow with the list. The passes read the file at memory speed,
+ * far faster than decoding it. They are kept on purpose: they find a damaged file while {@code Storage} can
+ * still fall back to a backup, rather than when a task deep in the list is first read and the user is already
+ * working with it.</p>
+ *
+ * <p>A record is decoded the first time its position is read and the decoded task is kept, so later reads and
+ * in-place changes see the same object. Tasks added after opening live on the heap.
+ * Until the first removal, position {@code i} maps straight to record {@code i}; the first removal
+ * materializes an order array of record numbers (4 bytes per task) that later removals shift.</p>
+ *
+ * <p>Windows does not allow replacing a file while it is mapped, and Java cannot unmap a file on demand, so
+ * there the file is read into the heap instead. Saving, which replaces the file by a rename, then works the
+ * same way on every platform, at the cost of reading the whole file when it is opened.</p>
+ */
+class MappedTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final boolean IS_WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final ByteBuffer buffer;
+    private final String[] dictionary;
+    private final int indexPosition;
+    private final int recordCount;
+    private final long checksum;
+    private final Map<Integer, Task> decoded = new HashMap<>();
+    private final List<Task> appended = new ArrayList<>();
+
+    /** Record numbers in list order; appended tasks are encoded as {@code -(k + 1)}. Null until first removal. */
+    private int[] order;
+    private int size;
+
+    private MappedTaskList(ByteBuffer buffer, String[] dictionary, int indexPosition, int recordCount) {
+        this.buffer = buffer;
+        this.dictionary = dictionary;
+        this.indexPosition = indexPosition;
+        this.recordCount = recordCount;
+        this.checksum = BinaryCodec.storedChecksum(buffer);
+        this.size = recordCount;
+    }
+
+    /**
+     * Maps the given indexed binary save file, or reads it into the heap on Windows, and verifies it in two
+     * sequential passes without decoding any task.
+     *
+     * @param file The save file, which must be in binary format version 2 or later.
+     * @return The lazily decoded list.
+     * @throws HuhhhException If the file cannot be mapped or fails its checksum, or its header or footer is
+     *     corrupted.
+     */
+    static MappedTaskList open(Path file) throws HuhhhException {
+        ByteBuffer buffer = IS_WINDOWS ? readIntoHeap(file) : map(file);
+        BinaryCodec.verifyChecksum(buffer);
+        try {
+            ByteBuffer header = buffer.duplicate();
+            String[] dictionary = BinaryCodec.readHeader(header);
+            int footer = buffer.limit() - BinaryCodec.FOOTER_LENGTH;
+            int indexPosition = buffer.getInt(footer);
+            int recordCount = buffer.getInt(footer + 4);
+            if (indexPosition < 0 || recordCount < 0 || (long) indexPosition + 4L * recordCount != footer
+                    || BinaryCodec.readVarInt(header) != recordCount) {
+                throw new CorruptedSaveFileException("Corrupted binary save file index");
+            }
+            validateIndex(buffer, header.position(), indexPosition, recordCount);
+            return new MappedTaskList(buffer, dictionary, indexPosition, recordCount);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new CorruptedSaveFileException("Corrupted binary save file");
+        }
+    }
+
+    private static MappedByteBuffer map(Path file) throws HuhhhException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new HuhhhException("Save file is too large to map: " + channel.size() + " bytes");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new HuhhhException("Failed to map save file: " + e.getMessage());
+        }
+    }
+
+    private static ByteBuffer readIntoHeap(Path file) throws HuhhhException {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (IOException | OutOfMemoryError e) {
+            throw new HuhhhException("Failed to read save file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks that the index lists every record in file order, each one starting exactly where the previous one
+     * ends, so that no record read later can reach outside the record area. Together with the checksum, this
+     * means a record read on first access cannot fail on a file that opened.
+     *
+     * @throws CorruptedSaveFileException If an index entry does not match the records.
+     */
+    private static void validateIndex(ByteBuffer buffer, int recordsStart, int indexPosition, int recordCount)
+            throws CorruptedSaveFileException {
+        ByteBuffer reader = buffer.duplicate();
+        long expected = recordsStart;
+        for (int i = 0; i < recordCount; i++) {
+            int offset = buffer.getInt(indexPosition + 4 * i);
+            if (offset != expected) {
+                throw new CorruptedSaveFileException("Corrupted binary save file index at record #" + (i + 1));
+            }
+            reader.position(offset);
+            int length = BinaryCodec.readVarInt(reader);
+            expected = (long) reader.position() + length;
+            if (length < 0 || expected > indexPosition) {
+                throw new CorruptedSaveFileException("Corrupted binary save entry #" + (i + 1));
+            }
+        }
+        if (expected != indexPosition) {
+            throw new CorruptedSaveFileException("Corrupted binary save file index");
+        }
+    }
+
+    /**
+     * Returns the checksum stored in the mapped file's footer.
+     */
+    long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Returns the number of records decoded so far.
+     */
+    int decodedCount() {
+        return decoded.size();
+    }
+
+    @Override
+    public Task get(int index) {
+        return resolve(slotAt(index));
+    }
+
+    /**
+     * Replaces the task at the given position without decoding the record it replaces, so that clearing a
+     * deleted task's slot costs nothing.
+     *
+     * @return The previous task if it had already been decoded, otherwise null.
+     */
+    @Override
+    public Task set(int index, Task task) {
+        int slot = slotAt(index);
+        if (slot < 0) {
+            return appended.set(-slot - 1, task);
+        }
+        return decoded.put(slot, task);
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index != size) {
+            throw new UnsupportedOperationException("Tasks can only be appended");
+        }
+        appended.add(task);
+        if (order != null) {
+            ensureOrderCapacity(size + 1);
+            order[size] = -appended.size();
+        }
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        int slot = slotAt(index);
+        Task removed = resolve(slot);
+        if (slot >= 0) {
+            decoded.remove(slot);
+        }
+        if (order == null) {
+            materializeOrder();
+        }
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int slotAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        if (order != null) {
+            return order[index];
+        }
+        return index < recordCount ? index : -(index - recordCount + 1);
+    }
+
+    private Task resolve(int slot) {
+        if (slot < 0) {
+            return appended.get(-slot - 1);
+        }
+        Task task = decoded.get(slot);
+        if (task == null && !decoded.containsKey(slot)) {
+            try {
+                task = BinaryCodec.decodeRecord(buffer, buffer.getInt(indexPosition + 4 * slot), dictionary);
+            } catch (HuhhhException e) {
+                // Only possible if the file was written wrongly, as open() checked the checksum and framing.
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            decoded.put(slot, task);
+        }
+        return task;
+    }
+
+    private void materializeOrder() {
+        order = new int[Math.max(size, 16)];
+        for (int i = 0; i < size; i++) {
+            order[i] = i < recordCount ? i : -(i - recordCount + 1);
+        }
+    }
+
+    private void ensureOrderCapacity(int capacity) {
+        if (order.length < capacity) {
+            int[] grown = new int[Math.max(capacity, order.length * 2)];
+            System.arraycopy(order, 0, grown, 0, size);
+            order = grown;
+        }
+    }
+}
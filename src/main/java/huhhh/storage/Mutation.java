@@ -0,0 +1,103 @@
+package huhhh.storage;
+
+import java.util.List;
+
+import huhhh.HuhhhException;
+import huhhh.task.Task;
+
+/**
+ * Represents a single change to the task list that can be appended to the journal
+ * instead of rewriting the whole save file. The task's state is encoded when the mutation is created,
+ * so the mutation can be written later from another thread.
+ */
+public class Mutation {
+    /**
+     * Kinds of changes recorded in the journal.
+     */
+    public enum Type {
+        ADD, UPDATE, DELETE
+    }
+
+    private final Type type;
+    private final int index;
+    private final byte[] payload;
+
+    Mutation(Type type, int index, byte[] payload) {
+        this.type = type;
+        this.index = index;
+        this.payload = payload;
+    }
+
+    /**
+     * Creates a mutation recording that a task was appended to the end of the list.
+     *
+     * @param task The task that was added.
+     * @return The mutation.
+     */
+    public static Mutation added(Task task) {
+        return new Mutation(Type.ADD, -1, BinaryCodec.encodeTask(task));
+    }
+
+    /**
+     * Creates a mutation recording that the task at the given index now has a new state.
+     *
+     * @param index The 0-based index of the task.
+     * @param task  The task in its updated state.
+     * @return The mutation.
+     */
+    public static Mutation updated(int index, Task task) {
+        return new Mutation(Type.UPDATE, index, BinaryCodec.encodeTask(task));
+    }
+
+    /**
+     * Creates a mutation recording that the task at the given index was removed.
+     *
+     * @param index The 0-based index of the removed task.
+     * @return The mutation.
+     */
+    public static Mutation deleted(int index) {
+        return new Mutation(Type.DELETE, index, new byte[0]);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Replays this mutation on a list of tasks loaded from the snapshot.
+     *
+     * @param tasks The tasks to update in place.
+     * @throws HuhhhException If the mutation does not fit the list or its payload is corrupted.
+     */
+    void applyTo(List<Task> tasks) throws HuhhhException {
+        switch (type) {
+        case ADD:
+            tasks.add(BinaryCodec.decodeTask(payload));
+            break;
+        case UPDATE:
+            checkIndex(tasks);
+            tasks.set(index, BinaryCodec.decodeTask(payload));
+            break;
+        case DELETE:
+            checkIndex(tasks);
+            tasks.remove(index);
+            break;
+        default:
+            throw new HuhhhException("Unknown journal record: " + type);
+        }
+    }
+
+    private void checkIndex(List<Task> tasks) throws HuhhhException {
+        if (index < 0 || index >= tasks.size()) {
+            throw new HuhhhException("Corrupted journal record: index " + index + " out of bounds");
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package huhhh.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+
+import huhhh.HuhhhException;
+import huhhh.task.Task;
+
+/**
+ * Streams a text save file in fixed-size chunks and parses the chunks in parallel.
+ *
+ * <p>The file is read sequentially over NIO; each chunk is cut at its last line break, with the partial line
+ * carried into the next chunk, and handed to the common fork-join pool for parsing. Results are joined back in
+ * file order. A corrupted line is recorded with its line number and does not stop the rest of the file.
+ * A trailing checksum line is read up front and excluded from parsing; verifying it is left to the caller.</p>
+ */
+class ParallelTextLoader {
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The tasks, per-line errors and checksum of a loaded file.
+     */
+    static class Result {
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<LineError> errors = new ArrayList<>();
+        private long checksum;
+        private long storedChecksum = -1;
+
+        List<Task> getTasks() {
+            return tasks;
+        }
+
+        List<LineError> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Returns the CRC32 of the file, excluding the checksum line if there is one.
+         */
+        long getChecksum() {
+            return checksum;
+        }
+
+        boolean hasStoredChecksum() {
+            return storedChecksum >= 0;
+        }
+
+        long getStoredChecksum() {
+            return storedChecksum;
+        }
+    }
+
+    /**
+     * A line that could not be parsed.
+     */
+    static class LineError {
+        private final int lineNumber;
+        private final String message;
+
+        LineError(int lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + message;
+        }
+    }
+
+    /**
+     * Loads the given text save file.
+     *
+     * @param file      The save file.
+     * @param chunkSize The number of bytes read per chunk.
+     * @return The parsed tasks in file order, the errors of any corrupted lines, and the file's checksums.
+     */
+    static Result load(Path file, int chunkSize) throws IOException {
+        Result result = new Result();
+        CRC32 crc = new CRC32();
+        List<ForkJoinTask<Chunk>> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long remaining = channel.size();
+            ByteBuffer tail = ByteBuffer.allocate((int) Math.min(remaining, TextCodec.TRAILER_SCAN_LENGTH));
+            long tailStart = remaining - tail.capacity();
+            while (tail.hasRemaining()) {
+                if (channel.read(tail, tailStart + tail.position()) < 0) {
+                    break;
+                }
+            }
+            int trailer = TextCodec.trailerLength(tail.array(), tail.capacity() == remaining);
+            if (trailer > 0) {
+                result.storedChecksum = TextCodec.trailerChecksum(tail.array(), trailer);
+                remaining -= trailer;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+            byte[] carry = new byte[0];
+            while (remaining > 0) {
+                if (buffer.remaining() > remaining) {
+                    buffer.limit(buffer.position() + (int) remaining);
+                }
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                remaining -= read;
+                if (!buffer.hasRemaining()) {
+                    carry = dispatch(carry, buffer, crc, chunks);
+                }
+            }
+            carry = dispatch(carry, buffer, crc, chunks);
+            if (carry.length > 0) {
+                chunks.add(ForkJoinPool.commonPool().submit(new Chunk(carry, carry.length)));
+            }
+        }
+
+        result.checksum = crc.getValue();
+        int lineOffset = 0;
+        for (ForkJoinTask<Chunk> task : chunks) {
+            Chunk chunk = task.join();
+            result.tasks.addAll(chunk.tasks);
+            for (int i = 0; i < chunk.errorLines.size(); i++) {
+                result.errors.add(new LineError(lineOffset + chunk.errorLines.get(i), chunk.errorMessages.get(i)));
+            }
+            lineOffset += chunk.lineCount;
+        }
+        return result;
+    }
+
+    /**
+     * Submits every complete line read so far for parsing and returns the trailing partial line.
+     */
+    private static byte[] dispatch(byte[] carry, ByteBuffer buffer, CRC32 crc, List<ForkJoinTask<Chunk>> chunks) {
+        int read = buffer.position();
+        crc.update(buffer.array(), 0, read);
+        byte[] data = Arrays.copyOf(carry, carry.length + read);
+        System.arraycopy(buffer.array(), 0, data, carry.length, read);
+        buffer.clear();
+
+        int end = data.length;
+        while (end > 0 && data[end - 1] != '\n') {
+            end--;
+        }
+        if (end == 0) {
+            return data;
+        }
+        chunks.add(ForkJoinPool.commonPool().submit(new Chunk(data, end)));
+        return Arrays.copyOfRange(data, end, data.length);
+    }
+
+    /**
+     * Parses the lines in the first {@code length} bytes of a chunk.
+     */
+    private static class Chunk implements Callable<Chunk> {
+        private final byte[] data;
+        private final int length;
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<Integer> errorLines = new ArrayList<>();
+        private final List<String> errorMessages = new ArrayList<>();
+        private int lineCount;
+
+        Chunk(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+
+        @Override
+        public Chunk call() {
+            int start = 0;
+            while (start < length) {
+                int end = start;
+                while (end < length && data[end] != '\n') {
+                    end++;
+                }
+                lineCount++;
+                parseLine(start, end);
+                start = end + 1;
+            }
+            return this;
+        }
+
+        private void parseLine(int start, int end) {
+            int stop = end > start && data[end - 1] == '\r' ? end - 1 : end;
+            String line = new String(data, start, stop - start, StandardCharsets.UTF_8);
+            if (line.trim().isEmpty()) {
+                return;
+            }
+            try {
+                tasks.add(TextCodec.parse(line));
+            } catch (HuhhhException e) {
+                errorLines.add(lineCount);
+                errorMessages.add(e.getMessage());
+            }
+        }
+    }
+}
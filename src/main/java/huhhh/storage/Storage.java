@@ -1,56 +1,211 @@
 package huhhh.storage;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
 
 import huhhh.HuhhhException;
-import huhhh.task.Deadline;
-import huhhh.task.Event;
 import huhhh.task.Task;
 import huhhh.task.TaskList;
-import huhhh.task.Todo;
+import huhhh.ui.Logger;
 
 /**
  * Handles loading and saving of tasks to a persistent storage file.
+ *
+ * <p>The save file is either in the text format or the binary format; the format is detected from the file
+ * header on load and kept on every later save. Use {@link StorageMigrator} to convert a text file to binary.</p>
+ *
+ * <p>Every rewrite of the save file goes to a temporary file that is fsynced and then atomically renamed over
+ * the save file, so a crash leaves either the old or the new file, never a truncated one. Both formats carry
+ * a checksum that is verified on load. The previous {@value #BACKUP_COUNT} versions are kept as
+ * {@code .bak.1} (newest) to {@code .bak.N}; if the save file fails its checksum, the newest intact backup is
+ * restored automatically.</p>
+ *
+ * <p>In journaled mode each change is appended to a {@link Journal} next to the save file instead of
+ * rewriting the whole file. The journal is folded back into the save file in the background once it grows
+ * past a record count or size threshold, and whenever the storage is closed.</p>
  */
 public class Storage {
     private static final Path DEFAULT_PATH = Paths.get("data", "huhhh.txt");
+    private static final int DEFAULT_COMPACT_RECORDS = 10_000;
+    private static final long DEFAULT_COMPACT_BYTES = 4L * 1024 * 1024;
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final String BACKUP_SUFFIX = ".bak.";
+    private static final int BACKUP_COUNT = 3;
+
     private final Path saveFile;
+    private final boolean isJournaled;
+    private final int compactRecordThreshold;
+    private final long compactByteThreshold;
+
+    private volatile TaskCodec codec = new TextCodec();
+    private Journal journal;
+    private volatile long snapshotChecksum;
+    private ExecutorService compactor;
+    private Future<?> compaction;
 
+    /**
+     * Creates the default application storage, which journals changes.
+     */
     public Storage() {
-        this(DEFAULT_PATH);
+        this(DEFAULT_PATH, true);
     }
 
     public Storage(Path saveFile) {
+        this(saveFile, false);
+    }
+
+    /**
+     * Creates a storage backed by the given save file.
+     *
+     * @param saveFile    The save file.
+     * @param isJournaled Whether changes are appended to a journal instead of rewriting the save file.
+     */
+    public Storage(Path saveFile, boolean isJournaled) {
+        this(saveFile, isJournaled, DEFAULT_COMPACT_RECORDS, DEFAULT_COMPACT_BYTES);
+    }
+
+    Storage(Path saveFile, boolean isJournaled, int compactRecordThreshold, long compactByteThreshold) {
         this.saveFile = saveFile;
+        this.isJournaled = isJournaled;
+        this.compactRecordThreshold = compactRecordThreshold;
+        this.compactByteThreshold = compactByteThreshold;
+    }
+
+    public boolean isJournaled() {
+        return isJournaled;
     }
 
     /**
      * Reads the storage file and deserializes its contents into a list of Task objects.
+     * In journaled mode, any journal left over from the previous run is replayed and folded into the save file.
      *
-     * @return A list of loaded Task objects.
+     * <p>Indexed binary files are memory-mapped rather than read: the returned list decodes each task
+     * on first access, so loading does not grow with the number of tasks. Text files are streamed and
+     * parsed in parallel by {@link ParallelTextLoader}.</p>
+     *
+     * @return A mutable list of loaded Task objects.
      * @throws HuhhhException If unable to read or parse the save file.
      */
-    public List<Task> load() throws HuhhhException {
+    public synchronized List<Task> load() throws HuhhhException {
+        return load(null);
+    }
+
+    /**
+     * Reads the storage file like {@link #load()}, but skips corrupted lines of a text save file instead of
+     * failing. The original file is copied next to the save file with a {@code .corrupt} suffix and the save
+     * file is rewritten without the skipped lines.
+     *
+     * @param skipped Receives a description of each skipped line, or null to fail on the first one.
+     * @return A mutable list of the tasks that could be loaded.
+     * @throws HuhhhException If unable to read the save file, or a line is corrupted and {@code skipped} is null.
+     */
+    public synchronized List<Task> load(List<String> skipped) throws HuhhhException {
         ensureFileExists();
-        List<Task> loaded = new ArrayList<>();
         try {
-            for (String line : Files.readAllLines(saveFile)) {
-                if (line.trim().isEmpty()) {
-                    continue;
+            return read(skipped);
+        } catch (CorruptedSaveFileException e) {
+            return restoreBackup(skipped, e);
+        }
+    }
+
+    private List<Task> read(List<String> skipped) throws HuhhhException {
+        try {
+            List<Task> loaded;
+            long checksum;
+            byte[] header = readHeader();
+            if (BinaryCodec.hasIndex(header)) {
+                MappedTaskList mapped = MappedTaskList.open(saveFile);
+                codec = new BinaryCodec();
+                loaded = mapped;
+                checksum = mapped.getChecksum();
+            } else if (BinaryCodec.hasHeader(header)) {
+                byte[] bytes = Files.readAllBytes(saveFile);
+                codec = new BinaryCodec();
+                loaded = codec.decode(bytes);
+                checksum = checksumOf(bytes);
+            } else {
+                ParallelTextLoader.Result result = ParallelTextLoader.load(saveFile,
+                        ParallelTextLoader.DEFAULT_CHUNK_SIZE);
+                codec = new TextCodec();
+                if (result.hasStoredChecksum() && result.getStoredChecksum() != result.getChecksum()) {
+                    throw new CorruptedSaveFileException("Save file failed its checksum check");
+                }
+                if (!result.getErrors().isEmpty()) {
+                    if (skipped == null) {
+                        throw new HuhhhException(result.getErrors().get(0).getMessage());
+                    }
+                    result.getErrors().forEach(error -> skipped.add(error.toString()));
+                    Files.copy(saveFile, sibling(CORRUPT_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
                 }
-                loaded.add(parse(line));
+                loaded = result.getTasks();
+                checksum = result.getChecksum();
             }
+            if (isJournaled) {
+                recoverJournal(loaded, checksum);
+            }
+            if (skipped != null && !skipped.isEmpty()) {
+                if (isJournaled) {
+                    rewriteSnapshot(loaded);
+                } else {
+                    writeSnapshot(loaded);
+                }
+            }
+            return loaded;
         } catch (IOException e) {
             throw new HuhhhException("Failed to read save file: " + e.getMessage());
         }
-        return loaded;
+    }
+
+    /**
+     * Replaces a save file that failed its integrity check with the newest backup that passes it.
+     * The damaged file is kept with a {@code .corrupt} suffix. Journals are discarded, since their
+     * changes were made against the damaged file and cannot be replayed onto an older one.
+     */
+    private List<Task> restoreBackup(List<String> skipped, CorruptedSaveFileException cause)
+            throws HuhhhException {
+        try {
+            awaitCompaction();
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            Files.copy(saveFile, sibling(CORRUPT_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(Journal.activePath(saveFile));
+            Journal.deleteAllSealed(saveFile);
+            for (int i = 1; i <= BACKUP_COUNT; i++) {
+                Path backup = sibling(BACKUP_SUFFIX + i);
+                if (!Files.exists(backup)) {
+                    continue;
+                }
+                Path temp = sibling(".tmp");
+                Files.copy(backup, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, saveFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                try {
+                    List<Task> restored = read(skipped);
+                    Logger.showError(cause.getMessage() + "; restored " + backup.getFileName()
+                            + " and kept the damaged file with a " + CORRUPT_SUFFIX + " suffix.");
+                    return restored;
+                } catch (CorruptedSaveFileException e) {
+                    // This backup is damaged as well; try the next older one.
+                }
+            }
+        } catch (IOException e) {
+            throw new HuhhhException("Failed to restore save file from backup: " + e.getMessage());
+        }
+        throw cause;
     }
 
     /**
@@ -59,117 +214,325 @@ public class Storage {
      * @param tasks The TaskList to save.
      * @throws HuhhhException If unable to write to the save file.
      */
-    public void save(TaskList tasks) throws HuhhhException {
+    public synchronized void save(TaskList tasks) throws HuhhhException {
+        save(tasks.getTasks());
+    }
+
+    /**
+     * Saves the given tasks to the storage file. Given a {@link TaskList#snapshot()}, this can run on
+     * a background thread while the list keeps changing.
+     *
+     * @param tasks The tasks to save, in list order.
+     * @throws HuhhhException If unable to write to the save file.
+     */
+    public synchronized void save(List<Task> tasks) throws HuhhhException {
         ensureFileExists();
         try {
-            Files.write(saveFile, tasks.serialisedList());
+            if (isJournaled) {
+                rewriteSnapshot(tasks);
+            } else {
+                writeSnapshot(tasks);
+            }
         } catch (IOException e) {
             throw new HuhhhException("Failed to write save file");
         }
     }
 
     /**
-     * Ensure that the save file and its parent directories exist.
-     * If they do not exist, create them.
+     * Persists a single change to the given TaskList.
+     * In journaled mode only the change is written; otherwise the whole list is saved.
      *
-     * @throws HuhhhException If unable to create the file or directories.
+     * @param tasks  The TaskList after the change was applied.
+     * @param change The change that was applied.
+     * @throws HuhhhException If unable to write to storage.
      */
-    private void ensureFileExists() throws HuhhhException {
+    public synchronized void persist(TaskList tasks, Mutation change) throws HuhhhException {
+        if (!hasJournal()) {
+            save(tasks);
+            return;
+        }
+        append(List.of(change), false);
+    }
+
+    /**
+     * Appends a batch of changes to the journal in a single write.
+     *
+     * @param changes  The changes, in the order they were applied.
+     * @param isForced Whether to fsync the journal before returning.
+     * @throws HuhhhException If there is no open journal or the write fails.
+     */
+    public synchronized void append(List<Mutation> changes, boolean isForced) throws HuhhhException {
+        if (!hasJournal()) {
+            throw new HuhhhException("Journal is not open; save the task list first");
+        }
         try {
-            Path parent = saveFile.getParent();
-            if (parent != null && !Files.exists(parent)) {
-                Files.createDirectories(parent);
-            }
-            if (!Files.exists(saveFile)) {
-                Files.createFile(saveFile);
+            journal.append(changes, isForced);
+            if (journal.getRecordCount() >= compactRecordThreshold || journal.getByteCount() >= compactByteThreshold) {
+                startCompaction();
             }
         } catch (IOException e) {
-            throw new HuhhhException("Unable to initialize save file");
+            throw new HuhhhException("Failed to write journal");
         }
     }
 
     /**
-     * Parse a single line from storage into a Task object.
+     * Returns true if changes can be appended to the journal without a full save first.
+     */
+    synchronized boolean hasJournal() {
+        return isJournaled && journal != null;
+    }
+
+    /**
+     * Folds any outstanding journal records into the save file and releases the journal.
+     * The storage can still be used afterwards; the next change starts a new journal.
      *
-     * @param line The raw storage line.
-     * @return The parsed Task object.
-     * @throws HuhhhException If the line is corrupted or invalid.
-     */
-    private Task parse(String line) throws HuhhhException {
-        String[] parts = line.split("\\|");
-        for (int i = 0; i < parts.length; i++) {
-            parts[i] = parts[i].trim();
-            assert parts[i] != null : "Trimming a split token should never yield null";
-        }
-        if (parts.length < 3) {
-            throw new HuhhhException("Corrupted save entry: " + line);
-        }
-        String type = parts[0];
-        boolean isDone = parseDone(parts[1], line);
-        String description = parts[2];
-        Task task;
-        String tagsField = "";
-
-        switch (type) {
-        case "T":
-            task = new Todo(description);
-            if (parts.length >= 4) {
-                tagsField = parts[3];
-            }
-            break;
-        case "D":
-            if (parts.length < 4) {
-                throw new HuhhhException("Corrupted deadline entry: " + line);
-            }
-            LocalDate dueDate;
-            try {
-                dueDate = LocalDate.parse(parts[3]);
-            } catch (DateTimeParseException e) {
-                throw new HuhhhException("Corrupted deadline date: " + line);
+     * @throws HuhhhException If unable to write to the save file.
+     */
+    public synchronized void close() throws HuhhhException {
+        if (!isJournaled || journal == null) {
+            return;
+        }
+        try {
+            awaitCompaction();
+            long base = snapshotChecksum;
+            journal.seal(saveFile, base);
+            if (!Journal.findSealed(saveFile, base).isEmpty()) {
+                snapshotChecksum = foldSealed(base);
             }
-            task = new Deadline(description, dueDate);
-            if (parts.length >= 5) {
-                tagsField = parts[4];
+            journal = null;
+        } catch (IOException e) {
+            throw new HuhhhException("Failed to compact journal: " + e.getMessage());
+        } finally {
+            if (compactor != null) {
+                compactor.shutdown();
+                compactor = null;
             }
-            break;
-        case "E":
-            if (parts.length < 5) {
-                throw new HuhhhException("Corrupted event entry: " + line);
+        }
+    }
+
+    /**
+     * Replays the sealed and active journals on top of the freshly loaded snapshot.
+     * The active journal is sealed first so that every pending journal is tied to this snapshot's checksum,
+     * which keeps recovery safe if we crash again before the rewritten snapshot lands.
+     */
+    private void recoverJournal(List<Task> tasks, long checksum) throws IOException, HuhhhException {
+        awaitCompaction();
+        if (journal != null) {
+            journal.close();
+        }
+        Journal recovered = new Journal(saveFile);
+        recovered.seal(saveFile, checksum);
+        List<Path> pending = Journal.findSealed(saveFile, checksum);
+        for (Path sealed : pending) {
+            for (Mutation mutation : Journal.read(sealed)) {
+                mutation.applyTo(tasks);
             }
-            task = new Event(description, parts[3], parts[4]);
-            if (parts.length >= 6) {
-                tagsField = parts[5];
+        }
+        snapshotChecksum = pending.isEmpty() ? checksum : writeSnapshot(tasks);
+        Journal.deleteAllSealed(saveFile);
+        recovered.open();
+        journal = recovered;
+    }
+
+    /**
+     * Replaces the save file with the given tasks and discards every journal.
+     */
+    private void rewriteSnapshot(List<Task> tasks) throws IOException {
+        awaitCompaction();
+        if (journal == null) {
+            journal = new Journal(saveFile);
+            snapshotChecksum = checksumOf(Files.readAllBytes(saveFile));
+        }
+        journal.seal(saveFile, snapshotChecksum);
+        snapshotChecksum = writeSnapshot(tasks);
+        Journal.deleteAllSealed(saveFile);
+        journal.open();
+    }
+
+    /**
+     * Seals the active journal and folds it into the save file on a background thread.
+     * New changes keep going to a fresh journal in the meantime.
+     */
+    private void startCompaction() throws IOException {
+        if (compaction != null && !compaction.isDone()) {
+            return;
+        }
+        long base = snapshotChecksum;
+        journal.seal(saveFile, base);
+        journal.open();
+        compaction = compactor().submit(() -> {
+            try {
+                snapshotChecksum = foldSealed(base);
+            } catch (IOException e) {
+                Logger.showError("Failed to compact journal: " + e.getMessage());
             }
-            break;
-        default:
-            throw new HuhhhException("Unknown task type in save: " + type);
+        });
+    }
+
+    /**
+     * Applies the sealed journals based on the given snapshot checksum to the save file.
+     *
+     * @return The checksum of the rewritten save file.
+     */
+    private long foldSealed(long base) throws IOException {
+        byte[] bytes = Files.readAllBytes(saveFile);
+        if (checksumOf(bytes) != base) {
+            throw new IOException("save file changed during compaction");
         }
+        try {
+            List<Task> tasks = codecFor(bytes).decode(bytes);
+            for (Path sealed : Journal.findSealed(saveFile, base)) {
+                for (Mutation mutation : Journal.read(sealed)) {
+                    mutation.applyTo(tasks);
+                }
+            }
+            long written = writeSnapshot(tasks);
+            Journal.deleteSealed(saveFile, base);
+            return written;
+        } catch (HuhhhException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
 
-        if (!tagsField.isBlank()) {
-            task.loadTagsFromStorageField(tagsField);
+    private void awaitCompaction() throws IOException {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for journal compaction");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            compaction = null;
         }
+    }
 
-        if (isDone) {
-            task.markAsDone();
+    private ExecutorService compactor() {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "huhhh-journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
         }
-        return task;
+        return compactor;
     }
 
     /**
-     * Parse the completion flag from storage line.
+     * Encodes the given tasks to a temporary file, fsyncs it, rotates the backups and renames it over the
+     * save file.
      *
-     * @param value The raw completion flag value.
-     * @param rawLine The full raw storage line (for error reporting).
-     * @return True if the task is marked done, false otherwise.
-     * @throws HuhhhException If the completion flag is not 0 or 1.
+     * @return The checksum of the written file.
+     */
+    private long writeSnapshot(List<Task> tasks) throws IOException {
+        byte[] bytes = codec.encode(tasks);
+        Path temp = sibling(".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        rotateBackups();
+        Files.move(temp, saveFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        return checksumOf(bytes);
+    }
+
+    /**
+     * Shifts {@code .bak.1} to {@code .bak.2} and so on, dropping the oldest, and keeps the current save file
+     * as {@code .bak.1}. The save file is hard-linked rather than copied where the file system allows it;
+     * that is safe because the save file is only ever replaced by rename, never written in place.
+     */
+    private void rotateBackups() throws IOException {
+        if (!Files.exists(saveFile) || Files.size(saveFile) == 0) {
+            return;
+        }
+        Files.deleteIfExists(sibling(BACKUP_SUFFIX + BACKUP_COUNT));
+        for (int i = BACKUP_COUNT - 1; i >= 1; i--) {
+            Path backup = sibling(BACKUP_SUFFIX + i);
+            if (Files.exists(backup)) {
+                Files.move(backup, sibling(BACKUP_SUFFIX + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Path newest = sibling(BACKUP_SUFFIX + 1);
+        try {
+            Files.createLink(newest, saveFile);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(saveFile, newest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Flushes the rename of the save file to disk by syncing its directory.
+     */
+    private void syncDirectory() {
+        Path directory = saveFile.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can open a directory; the rename itself is still atomic.
+        }
+    }
+
+    private Path sibling(String suffix) {
+        return saveFile.resolveSibling(saveFile.getFileName() + suffix);
+    }
+
+    /**
+     * Picks the codec matching the header of a save file. Files without the binary header use the text format.
+     */
+    static TaskCodec codecFor(byte[] bytes) {
+        return BinaryCodec.hasHeader(bytes) ? new BinaryCodec() : new TextCodec();
+    }
+
+    private byte[] readHeader() throws IOException {
+        try (InputStream in = Files.newInputStream(saveFile)) {
+            return in.readNBytes(BinaryCodec.HEADER_LENGTH);
+        }
+    }
+
+    /**
+     * Returns the checksum that identifies a save file's contents to the journal.
+     * Indexed binary files and text files with a checksum line carry their own checksum; anything else is hashed.
      */
-    private boolean parseDone(String value, String rawLine) throws HuhhhException {
-        if ("1".equals(value)) {
-            return true;
+    private static long checksumOf(byte[] bytes) {
+        if (BinaryCodec.hasIndex(bytes)) {
+            return BinaryCodec.storedChecksum(ByteBuffer.wrap(bytes));
+        }
+        if (!BinaryCodec.hasHeader(bytes)) {
+            int trailer = TextCodec.trailerLength(bytes, true);
+            if (trailer > 0) {
+                return TextCodec.trailerChecksum(bytes, trailer);
+            }
         }
-        if ("0".equals(value)) {
-            return false;
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Ensure that the save file and its parent directories exist.
+     * If they do not exist, create them.
+     *
+     * @throws HuhhhException If unable to create the file or directories.
+     */
+    private void ensureFileExists() throws HuhhhException {
+        try {
+            Path parent = saveFile.getParent();
+            if (parent != null && !Files.exists(parent)) {
+                Files.createDirectories(parent);
+            }
+            if (!Files.exists(saveFile)) {
+                Files.createFile(saveFile);
+            }
+        } catch (IOException e) {
+            throw new HuhhhException("Unable to initialize save file");
         }
-        throw new HuhhhException("Invalid completion flag in entry: " + rawLine);
     }
 }
@@ -0,0 +1,65 @@
+package huhhh.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import huhhh.HuhhhException;
+import huhhh.task.Task;
+import huhhh.ui.Logger;
+
+/**
+ * One-shot conversion of a text save file to the binary format.
+ * Once converted, {@link Storage} detects the binary header and keeps saving in that format.
+ */
+public class StorageMigrator {
+    private static final String BACKUP_SUFFIX = ".text-backup";
+
+    /**
+     * Converts the given save file to the binary format in place, folding in any pending journal first.
+     * The original text file is kept next to it with a {@code .text-backup} suffix.
+     *
+     * @param saveFile The save file to convert.
+     * @return The number of tasks migrated, or -1 if the file was already binary.
+     * @throws HuhhhException If the file cannot be read, parsed or written.
+     */
+    public static int migrateToBinary(Path saveFile) throws HuhhhException {
+        Storage storage = new Storage(saveFile, true);
+        List<Task> tasks = storage.load();
+        storage.close();
+        try {
+            if (BinaryCodec.hasHeader(Files.readAllBytes(saveFile))) {
+                return -1;
+            }
+            Path temp = saveFile.resolveSibling(saveFile.getFileName() + ".tmp");
+            Files.write(temp, new BinaryCodec().encode(tasks));
+            Files.copy(saveFile, saveFile.resolveSibling(saveFile.getFileName() + BACKUP_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, saveFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new HuhhhException("Failed to migrate save file: " + e.getMessage());
+        }
+        return tasks.size();
+    }
+
+    /**
+     * Migrates the save file given as the first argument, or the default save file.
+     */
+    public static void main(String[] args) {
+        Path saveFile = args.length > 0 ? Paths.get(args[0]) : Paths.get("data", "huhhh.txt");
+        try {
+            int migrated = migrateToBinary(saveFile);
+            if (migrated < 0) {
+                System.out.println(saveFile + " is already in the binary format.");
+            } else {
+                System.out.println("Migrated " + migrated + " tasks in " + saveFile + " to the binary format.");
+            }
+        } catch (HuhhhException e) {
+            Logger.showError(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package huhhh.storage;
+
+import java.util.List;
+
+import huhhh.HuhhhException;
+import huhhh.task.Task;
+
+/**
+ * Converts a whole task list to and from the bytes of a save file.
+ */
+interface TaskCodec {
+    /**
+     * Decodes the contents of a save file.
+     *
+     * @param bytes The raw file contents.
+     * @return The decoded tasks, in list order.
+     * @throws HuhhhException If the contents are corrupted.
+     */
+    List<Task> decode(byte[] bytes) throws HuhhhException;
+
+    /**
+     * Encodes the given tasks as the contents of a save file.
+     *
+     * @param tasks The tasks, in list order.
+     * @return The file contents.
+     */
+    byte[] encode(List<Task> tasks);
+}
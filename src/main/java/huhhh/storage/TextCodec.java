@@ -0,0 +1,185 @@
+package huhhh.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import huhhh.HuhhhException;
+import huhhh.task.Deadline;
+import huhhh.task.Event;
+import huhhh.task.Task;
+import huhhh.task.Todo;
+
+/**
+ * The original human-readable save format: one {@code T | 0 | desc | ...} line per task.
+ *
+ * <p>Files written by this codec end with a {@code #crc32 xxxxxxxx} line holding the CRC32 of every byte
+ * before it. Files without that line, such as hand-edited or older saves, are still accepted unverified.</p>
+ */
+class TextCodec implements TaskCodec {
+    static final String CHECKSUM_PREFIX = "#crc32 ";
+    /** Enough bytes from the end of a file to hold the checksum line and the line break before it. */
+    static final int TRAILER_SCAN_LENGTH = 32;
+
+    @Override
+    public List<Task> decode(byte[] bytes) throws HuhhhException {
+        int trailer = trailerLength(bytes, true);
+        int length = bytes.length - trailer;
+        if (trailer > 0) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, length);
+            if (crc.getValue() != trailerChecksum(bytes, trailer)) {
+                throw new CorruptedSaveFileException("Save file failed its checksum check");
+            }
+        }
+        List<Task> loaded = new ArrayList<>();
+        for (String line : new String(bytes, 0, length, StandardCharsets.UTF_8).split("\\R")) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            loaded.add(parse(line));
+        }
+        return loaded;
+    }
+
+    @Override
+    public byte[] encode(List<Task> tasks) {
+        StringBuilder content = new StringBuilder();
+        for (Task task : tasks) {
+            content.append(task.serialisedString()).append(System.lineSeparator());
+        }
+        byte[] body = content.toString().getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        byte[] trailer = String.format("%s%08x%s", CHECKSUM_PREFIX, crc.getValue(), System.lineSeparator())
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = Arrays.copyOf(body, body.length + trailer.length);
+        System.arraycopy(trailer, 0, bytes, body.length, trailer.length);
+        return bytes;
+    }
+
+    /**
+     * Returns the length of the checksum line at the end of the given bytes, or 0 if there is none.
+     *
+     * @param tail        The last bytes of a file.
+     * @param isWholeFile Whether {@code tail} starts at the beginning of the file.
+     */
+    static int trailerLength(byte[] tail, boolean isWholeFile) {
+        int end = tail.length;
+        if (end > 0 && tail[end - 1] == '\n') {
+            end--;
+        }
+        if (end > 0 && tail[end - 1] == '\r') {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && tail[start - 1] != '\n') {
+            start--;
+        }
+        if (start == 0 && !isWholeFile) {
+            return 0;
+        }
+        String line = new String(tail, start, end - start, StandardCharsets.UTF_8);
+        if (!line.startsWith(CHECKSUM_PREFIX) || !line.substring(CHECKSUM_PREFIX.length()).matches("[0-9a-f]{8}")) {
+            return 0;
+        }
+        return tail.length - start;
+    }
+
+    /**
+     * Returns the checksum stored in the trailing checksum line of the given length.
+     */
+    static long trailerChecksum(byte[] tail, int trailerLength) {
+        String line = new String(tail, tail.length - trailerLength, trailerLength, StandardCharsets.UTF_8).trim();
+        return Long.parseLong(line.substring(CHECKSUM_PREFIX.length()), 16);
+    }
+
+    /**
+     * Parse a single line from storage into a Task object.
+     *
+     * @param line The raw storage line.
+     * @return The parsed Task object.
+     * @throws HuhhhException If the line is corrupted or invalid.
+     */
+    static Task parse(String line) throws HuhhhException {
+        String[] parts = line.split("\\|");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+            assert parts[i] != null : "Trimming a split token should never yield null";
+        }
+        if (parts.length < 3) {
+            throw new HuhhhException("Corrupted save entry: " + line);
+        }
+        String type = parts[0];
+        boolean isDone = parseDone(parts[1], line);
+        String description = parts[2];
+        Task task;
+        String tagsField = "";
+
+        switch (type) {
+        case "T":
+            task = new Todo(description);
+            if (parts.length >= 4) {
+                tagsField = parts[3];
+            }
+            break;
+        case "D":
+            if (parts.length < 4) {
+                throw new HuhhhException("Corrupted deadline entry: " + line);
+            }
+            LocalDate dueDate;
+            try {
+                dueDate = LocalDate.parse(parts[3]);
+            } catch (DateTimeParseException e) {
+                throw new HuhhhException("Corrupted deadline date: " + line);
+            }
+            task = new Deadline(description, dueDate);
+            if (parts.length >= 5) {
+                tagsField = parts[4];
+            }
+            break;
+        case "E":
+            if (parts.length < 5) {
+                throw new HuhhhException("Corrupted event entry: " + line);
+            }
+            task = new Event(description, parts[3], parts[4]);
+            if (parts.length >= 6) {
+                tagsField = parts[5];
+            }
+            break;
+        default:
+            throw new HuhhhException("Unknown task type in save: " + type);
+        }
+
+        if (!tagsField.isBlank()) {
+            task.loadTagsFromStorageField(tagsField);
+        }
+
+        if (isDone) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    /**
+     * Parse the completion flag from storage line.
+     *
+     * @param value The raw completion flag value.
+     * @param rawLine The full raw storage line (for error reporting).
+     * @return True if the task is marked done, false otherwise.
+     * @throws HuhhhException If the completion flag is not 0 or 1.
+     */
+    private static boolean parseDone(String value, String rawLine) throws HuhhhException {
+        if ("1".equals(value)) {
+            return true;
+        }
+        if ("0".equals(value)) {
+            return false;
+        }
+        throw new HuhhhException("Invalid completion flag in entry: " + rawLine);
+    }
+}
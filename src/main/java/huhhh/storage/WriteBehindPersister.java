@@ -0,0 +1,222 @@
+package huhhh.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import huhhh.HuhhhException;
+import huhhh.task.Task;
+import huhhh.task.TaskList;
+import huhhh.ui.Logger;
+
+/**
+ * Takes change notifications from the command thread and writes them to a journaled {@link Storage}
+ * on a background thread, merging every change made since the last flush into a single write.
+ *
+ * <p>Pending changes are flushed on a fixed interval, when {@link #flush()} or {@link #close()} is called,
+ * and on JVM shutdown. Storage without an open journal is persisted on the calling thread, except in
+ * {@link Durability#DEFERRED} mode, where the whole list is saved once per flush instead. The deferred mode
+ * has no interval flush at all.</p>
+ */
+public class WriteBehindPersister {
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+
+    private final Storage storage;
+    private final Durability durability;
+    private final List<Mutation> pending = new ArrayList<>();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher;
+    private final Thread shutdownHook;
+
+    private volatile String failureMessage;
+    /** The snapshot to save on the next flush, when deferred changes cannot be journaled. Guarded by pending. */
+    private List<Task> unsavedTasks;
+
+    /**
+     * Creates a persister that writes to the given storage.
+     *
+     * @param storage             The storage to write to.
+     * @param durability          How eagerly changes reach the disk.
+     * @param flushIntervalMillis How often pending changes are flushed in the write-behind modes.
+     */
+    public WriteBehindPersister(Storage storage, Durability durability, long flushIntervalMillis) {
+        this.storage = storage;
+        this.durability = durability;
+        if (durability == Durability.PER_COMMAND) {
+            this.flusher = null;
+            this.shutdownHook = null;
+            return;
+        }
+        if (durability == Durability.DEFERRED) {
+            this.flusher = null;
+        } else {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "huhhh-persister");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushInBackground, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        this.shutdownHook = new Thread(this::closeQuietly, "huhhh-persister-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Records a change that was just applied to the task list.
+     *
+     * @param tasks  The TaskList after the change, used when the change cannot be journaled.
+     * @param change The change that was applied.
+     * @throws HuhhhException If a previous background flush failed, or the synchronous write fails.
+     */
+    public void record(TaskList tasks, Mutation change) throws HuhhhException {
+        record(tasks, List.of(change));
+    }
+
+    /**
+     * Records a batch of changes that were just applied to the task list by one command.
+     * The batch is written together, so a bulk command costs one write rather than one per task.
+     *
+     * @param tasks   The TaskList after the changes, used when the changes cannot be journaled.
+     * @param changes The changes, in the order they were applied.
+     * @throws HuhhhException If a previous background flush failed, or the synchronous write fails. A failed
+     *                        background flush is reported only after these changes are queued, because the
+     *                        task list already holds them and the journal addresses tasks by position.
+     */
+    public void record(TaskList tasks, List<Mutation> changes) throws HuhhhException {
+        queue(tasks, changes);
+        String failure = failureMessage;
+        if (failure != null) {
+            failureMessage = null;
+            throw new HuhhhException(failure);
+        }
+    }
+
+    /**
+     * Returns true if a background flush has failed and the failure has not been reported yet.
+     */
+    boolean hasUnreportedFailure() {
+        return failureMessage != null;
+    }
+
+    private void queue(TaskList tasks, List<Mutation> changes) throws HuhhhException {
+        if (durability != Durability.PER_COMMAND && storage.hasJournal()) {
+            synchronized (pending) {
+                pending.addAll(changes);
+            }
+            return;
+        }
+        if (durability == Durability.DEFERRED) {
+            // A snapshot, so a flush from the shutdown hook never sees a change half made.
+            List<Task> snapshot = tasks.snapshot();
+            List<Task> superseded;
+            synchronized (pending) {
+                superseded = unsavedTasks;
+                unsavedTasks = snapshot;
+            }
+            if (superseded != null) {
+                TaskList.release(superseded);
+            }
+            return;
+        }
+        synchronized (flushLock) {
+            flushPending();
+            if (storage.hasJournal()) {
+                storage.append(changes, true);
+            } else {
+                storage.save(tasks);
+            }
+        }
+    }
+
+    /**
+     * Writes every pending change to storage as one batch.
+     *
+     * @throws HuhhhException If the write fails.
+     */
+    public void flush() throws HuhhhException {
+        synchronized (flushLock) {
+            flushPending();
+        }
+    }
+
+    /**
+     * Flushes pending changes, stops the background flusher and closes the storage.
+     *
+     * @throws HuhhhException If the final write fails.
+     */
+    public void close() throws HuhhhException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush();
+        storage.close();
+        if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // JVM is already shutting down, the hook will run anyway.
+            }
+        }
+    }
+
+    private void flushPending() throws HuhhhException {
+        List<Mutation> batch;
+        List<Task> snapshot;
+        synchronized (pending) {
+            snapshot = unsavedTasks;
+            unsavedTasks = null;
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        if (snapshot != null) {
+            try {
+                storage.save(snapshot);
+            } catch (HuhhhException e) {
+                boolean isSuperseded;
+                synchronized (pending) {
+                    isSuperseded = unsavedTasks != null;
+                    if (!isSuperseded) {
+                        unsavedTasks = snapshot;
+                    }
+                    pending.addAll(0, batch);
+                }
+                if (isSuperseded) {
+                    TaskList.release(snapshot);
+                }
+                throw e;
+            }
+            TaskList.release(snapshot);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            storage.append(batch, durability != Durability.BEST_EFFORT);
+        } catch (HuhhhException e) {
+            synchronized (pending) {
+                pending.addAll(0, batch);
+            }
+            throw e;
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (HuhhhException e) {
+            failureMessage = e.getMessage();
+            Logger.showError(e.getMessage());
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (HuhhhException e) {
+            Logger.showError(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package huhhh.task;
+
+import java.util.Arrays;
+
+/**
+ * A growable set of task slots stored one bit per slot in 64-bit words, with the in-place set operations that
+ * tag queries are evaluated with.
+ */
+class Bitmap {
+    private long[] words;
+
+    Bitmap() {
+        this.words = new long[1];
+    }
+
+    private Bitmap(long[] words) {
+        this.words = words;
+    }
+
+    Bitmap copy() {
+        return new Bitmap(words.clone());
+    }
+
+    boolean get(int slot) {
+        int word = slot >>> 6;
+        return word < words.length && (words[word] & (1L << slot)) != 0;
+    }
+
+    void set(int slot) {
+        int word = slot >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        words[word] |= 1L << slot;
+    }
+
+    void clear(int slot) {
+        int word = slot >>> 6;
+        if (word < words.length) {
+            words[word] &= ~(1L << slot);
+        }
+    }
+
+    /**
+     * Keeps only the slots also in {@code other}.
+     */
+    Bitmap and(Bitmap other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= i < other.words.length ? other.words[i] : 0;
+        }
+        return this;
+    }
+
+    /**
+     * Adds every slot in {@code other}.
+     */
+    Bitmap or(Bitmap other) {
+        if (other.words.length > words.length) {
+            words = Arrays.copyOf(words, other.words.length);
+        }
+        for (int i = 0; i < other.words.length; i++) {
+            words[i] |= other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * Removes every slot in {@code other}.
+     */
+    Bitmap andNot(Bitmap other) {
+        for (int i = 0; i < Math.min(words.length, other.words.length); i++) {
+            words[i] &= ~other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * Returns the first set slot at or after {@code from}, or -1 if there is none.
+     */
+    int nextSetBit(int from) {
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
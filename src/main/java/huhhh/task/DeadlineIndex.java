@@ -0,0 +1,69 @@
+package huhhh.task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A date-ordered index over the deadlines in a task list.
+ *
+ * <p>Deadlines are grouped by due date in a sorted map, so a date range is found in O(log n) and then read
+ * off in O(k). Deadlines sharing a date keep list order, since tasks are only ever appended or removed.</p>
+ */
+class DeadlineIndex {
+    private final TreeMap<LocalDate, Set<Task>> byDate = new TreeMap<>();
+
+    /**
+     * Builds an index over the deadlines among the given tasks.
+     */
+    static DeadlineIndex of(List<Task> tasks) {
+        DeadlineIndex index = new DeadlineIndex();
+        for (Task task : tasks) {
+            index.add(task);
+        }
+        return index;
+    }
+
+    void add(Task task) {
+        if (task instanceof Deadline) {
+            byDate.computeIfAbsent(((Deadline) task).getBy(), date -> new LinkedHashSet<>()).add(task);
+        }
+    }
+
+    void remove(Task task) {
+        if (!(task instanceof Deadline)) {
+            return;
+        }
+        LocalDate by = ((Deadline) task).getBy();
+        Set<Task> sameDay = byDate.get(by);
+        if (sameDay != null) {
+            sameDay.remove(task);
+            if (sameDay.isEmpty()) {
+                byDate.remove(by);
+            }
+        }
+    }
+
+    /**
+     * Returns the deadlines due from {@code from} to {@code to} inclusive, earliest first.
+     *
+     * @param isPendingOnly Whether to leave out deadlines that are already done.
+     */
+    List<Task> between(LocalDate from, LocalDate to, boolean isPendingOnly) {
+        List<Task> due = new ArrayList<>();
+        if (from.isAfter(to)) {
+            return due;
+        }
+        for (Set<Task> sameDay : byDate.subMap(from, true, to, true).values()) {
+            for (Task task : sameDay) {
+                if (!isPendingOnly || !task.isDone()) {
+                    due.add(task);
+                }
+            }
+        }
+        return due;
+    }
+}
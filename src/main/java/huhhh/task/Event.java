@@ -1,12 +1,38 @@
 package huhhh.task;
 
+import java.text.ParsePosition;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalQuery;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * Represents an event task with a description, start time, and end time.
+ *
+ * <p>The times are kept as typed for display and storage. Where they can be read as a date, optionally
+ * followed by a time (e.g. {@code 2026-08-06 2pm}), the event also gets a normalized start and end so it can
+ * be found by date and checked for conflicts. The end may be a time alone, which is taken to be on the start
+ * date, or the next day if it would otherwise come before the start. An end given as a date alone lasts
+ * until the end of that day.</p>
  */
 public class Event extends Task {
+    private static final List<DateTimeFormatter> TIME_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("H:mm"),
+            DateTimeFormatter.ofPattern("HHmm"),
+            new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("h[:mm]a")
+                    .toFormatter(Locale.ENGLISH));
+
     protected String from;
     protected String to;
 
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
     /**
      * Constructs an Event with the given description, start time, and end time.
      *
@@ -18,6 +44,43 @@ public class Event extends Task {
         super(description);
         this.from = from;
         this.to = to;
+        LocalDateTime parsedStart = parsePoint(from, null, false);
+        LocalDateTime parsedEnd = parsedStart == null ? null : parsePoint(to, parsedStart.toLocalDate(), true);
+        if (parsedEnd != null && !parsedEnd.isAfter(parsedStart) && parseDate(splitPoint(to)[0]) == null) {
+            parsedEnd = parsedEnd.plusDays(1);
+        }
+        boolean isScheduled = parsedEnd != null && parsedEnd.isAfter(parsedStart);
+        this.start = isScheduled ? parsedStart : null;
+        this.end = isScheduled ? parsedEnd : null;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    /**
+     * Returns true if the start and end could be parsed, so the event can be found by date.
+     */
+    public boolean isScheduled() {
+        return start != null;
+    }
+
+    /**
+     * Returns the parsed start, or null if the event is not scheduled.
+     */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the parsed end, exclusive, or null if the event is not scheduled.
+     */
+    public LocalDateTime getEnd() {
+        return end;
     }
 
     @Override
@@ -35,4 +98,60 @@ public class Event extends Task {
         return String.format("E | %d | %s | %s | %s | %s",
                 super.isDone() ? 1 : 0, super.getDescription(), from, to, tagsField);
     }
+
+    /**
+     * Parses "date", "date time" or, when a default date is given, "time" alone. Returns null otherwise.
+     */
+    private static LocalDateTime parsePoint(String raw, LocalDate defaultDate, boolean isEnd) {
+        if (raw == null || raw.isBlank()) {
+            return null;
+        }
+        String[] parts = splitPoint(raw);
+        LocalDate date = parseDate(parts[0]);
+        if (date == null) {
+            LocalTime time = defaultDate == null || parts.length > 1 ? null : parseTime(parts[0]);
+            return time == null ? null : defaultDate.atTime(time);
+        }
+        if (parts.length == 1) {
+            return isEnd ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+        }
+        LocalTime time = parseTime(parts[1].trim());
+        return time == null ? null : date.atTime(time);
+    }
+
+    private static String[] splitPoint(String raw) {
+        return raw.trim().split("\\s+|T", 2);
+    }
+
+    private static LocalDate parseDate(String raw) {
+        return parseOrNull(raw, DateTimeFormatter.ISO_LOCAL_DATE, LocalDate::from);
+    }
+
+    private static LocalTime parseTime(String raw) {
+        for (DateTimeFormatter format : TIME_FORMATS) {
+            LocalTime time = parseOrNull(raw, format, LocalTime::from);
+            if (time != null) {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the whole of the input with the given format, or returns null. The shape is checked first without
+     * throwing, so free-text times such as "Aug 6th 2pm", which are common and loaded with every event, cost
+     * no exception.
+     */
+    private static <T> T parseOrNull(String raw, DateTimeFormatter format, TemporalQuery<T> query) {
+        ParsePosition position = new ParsePosition(0);
+        if (format.parseUnresolved(raw, position) == null || position.getIndex() != raw.length()) {
+            return null;
+        }
+        try {
+            return format.parse(raw, query);
+        } catch (DateTimeParseException e) {
+            // Well formed but not a real date or time, such as 2026-02-30.
+            return null;
+        }
+    }
 }
@@ -0,0 +1,208 @@
+package huhhh.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * An interval tree over the scheduled events in a task list.
+ *
+ * <p>The tree is a treap ordered by start time, with each node also holding the latest end in its subtree.
+ * An overlap search skips every subtree that ends before the range starts and stops going right once starts
+ * pass the end of the range, so it takes O(log n + k) expected time and returns events by start time.
+ * Events whose times could not be parsed are not indexed.</p>
+ */
+class EventIndex {
+    private final Random random = new Random();
+    private final Map<Task, Node> nodes = new IdentityHashMap<>();
+    private Node root;
+    private long nextSequence;
+
+    /**
+     * A tree node. Nodes are ordered by start, then by insertion sequence to keep keys unique.
+     */
+    private static class Node {
+        private final Event event;
+        private final long sequence;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private LocalDateTime maxEnd;
+
+        Node(Event event, long sequence, int priority) {
+            this.event = event;
+            this.sequence = sequence;
+            this.priority = priority;
+            this.maxEnd = event.getEnd();
+        }
+    }
+
+    /**
+     * Builds an index over the scheduled events among the given tasks.
+     */
+    static EventIndex of(List<Task> tasks) {
+        EventIndex index = new EventIndex();
+        for (Task task : tasks) {
+            index.add(task);
+        }
+        return index;
+    }
+
+    void add(Task task) {
+        if (task instanceof Event && ((Event) task).isScheduled()) {
+            Node node = new Node((Event) task, nextSequence++, random.nextInt());
+            nodes.put(task, node);
+            root = insert(root, node);
+        }
+    }
+
+    void remove(Task task) {
+        Node node = nodes.remove(task);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    /**
+     * Returns the events overlapping the range from {@code from} inclusive to {@code to} exclusive,
+     * ordered by start.
+     */
+    List<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<Event> overlapping = new ArrayList<>();
+        collect(root, from, to, null, overlapping);
+        return overlapping;
+    }
+
+    /**
+     * Returns every pair of overlapping events, each pair once, ordered by the start of the earlier event.
+     */
+    List<Event[]> conflicts() {
+        List<Node> ordered = new ArrayList<>();
+        inOrder(root, ordered);
+        List<Event[]> conflicts = new ArrayList<>();
+        List<Event> overlapping = new ArrayList<>();
+        for (Node node : ordered) {
+            overlapping.clear();
+            collect(root, node.event.getStart(), node.event.getEnd(), node, overlapping);
+            for (Event other : overlapping) {
+                conflicts.add(new Event[] {node.event, other});
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Adds the events overlapping the range to {@code out} in start order.
+     * If {@code after} is given, only events ordered after it are added.
+     */
+    private static void collect(Node node, LocalDateTime from, LocalDateTime to, Node after, List<Event> out) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        collect(node.left, from, to, after, out);
+        if (!node.event.getStart().isBefore(to)) {
+            return;
+        }
+        if (node.event.getEnd().isAfter(from) && (after == null || compare(node, after) > 0)) {
+            out.add(node.event);
+        }
+        collect(node.right, from, to, after, out);
+    }
+
+    private static void inOrder(Node node, List<Node> out) {
+        if (node != null) {
+            inOrder(node.left, out);
+            out.add(node);
+            inOrder(node.right, out);
+        }
+    }
+
+    private static int compare(Node a, Node b) {
+        int byStart = a.event.getStart().compareTo(b.event.getStart());
+        return byStart != 0 ? byStart : Long.compare(a.sequence, b.sequence);
+    }
+
+    private static Node insert(Node root, Node node) {
+        if (root == null) {
+            return node;
+        }
+        if (compare(node, root) < 0) {
+            root.left = insert(root.left, node);
+            if (root.left.priority > root.priority) {
+                root = rotateRight(root);
+            }
+        } else {
+            root.right = insert(root.right, node);
+            if (root.right.priority > root.priority) {
+                root = rotateLeft(root);
+            }
+        }
+        update(root);
+        return root;
+    }
+
+    private static Node delete(Node root, Node node) {
+        if (root == null) {
+            return null;
+        }
+        if (root == node) {
+            return merge(root.left, root.right);
+        }
+        if (compare(node, root) < 0) {
+            root.left = delete(root.left, node);
+        } else {
+            root.right = delete(root.right, node);
+        }
+        update(root);
+        return root;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        LocalDateTime maxEnd = node.event.getEnd();
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+}
@@ -0,0 +1,95 @@
+package huhhh.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A trigram index over task descriptions used by {@link TaskList#findTasks(String)}.
+ *
+ * <p>Every distinct three-character substring of a description maps to the tasks containing it, kept in
+ * insertion order. Since tasks are only ever appended or removed, that is also list order. A search looks up
+ * each trigram of the keyword, walks only the smallest of those postings and confirms each candidate with
+ * {@link Task#containsKeyword(String)}, so results match a plain substring scan exactly.</p>
+ */
+class KeywordIndex {
+    static final int GRAM_LENGTH = 3;
+
+    private final Map<String, Set<Task>> postings = new HashMap<>();
+
+    /**
+     * Builds an index over the given tasks, in list order.
+     */
+    static KeywordIndex of(List<Task> tasks) {
+        KeywordIndex index = new KeywordIndex();
+        for (Task task : tasks) {
+            index.add(task);
+        }
+        return index;
+    }
+
+    /**
+     * Returns true if the keyword is long enough to be looked up in the index.
+     * Shorter keywords share too many tasks for the index to help and are scanned instead.
+     */
+    static boolean canSearch(String keyword) {
+        return keyword != null && keyword.length() >= GRAM_LENGTH;
+    }
+
+    void add(Task task) {
+        for (String gram : gramsOf(task.getDescription())) {
+            postings.computeIfAbsent(gram, key -> new LinkedHashSet<>()).add(task);
+        }
+    }
+
+    void remove(Task task) {
+        for (String gram : gramsOf(task.getDescription())) {
+            Set<Task> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(task);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks whose description contains the keyword, in list order.
+     *
+     * @param keyword A keyword for which {@link #canSearch(String)} is true.
+     * @return The matching tasks.
+     */
+    List<Task> find(String keyword) {
+        assert canSearch(keyword) : "Keyword is too short for the index";
+        Set<Task> smallest = null;
+        for (String gram : gramsOf(keyword)) {
+            Set<Task> posting = postings.get(gram);
+            if (posting == null) {
+                return new ArrayList<>();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        List<Task> matches = new ArrayList<>();
+        for (Task task : smallest) {
+            if (task.containsKeyword(keyword)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    private static Set<String> gramsOf(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,145 @@
+package huhhh.task;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A growable array stored as a 32-way trie, where taking an immutable snapshot costs O(1).
+ *
+ * <p>Every node records the edit token that created it. The vector changes nodes carrying its current token
+ * in place; any other node may be shared with a snapshot, so it is copied first, along with its path from the
+ * root. Taking a snapshot keeps the current root and switches to a new token, so the next change to each
+ * region copies about log32(n) small nodes and everything else stays shared.</p>
+ *
+ * @param <E> The element type; elements must not be changed once stored.
+ */
+final class PersistentVector<E> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private Object editToken = new Object();
+    private Node root = new Node(editToken);
+    /** The bit offset of the root's index digit; 0 when the root is a leaf. */
+    private int shift;
+    private int size;
+
+    /**
+     * A trie node. Leaves hold elements and inner nodes hold children.
+     */
+    private static final class Node {
+        private final Object editToken;
+        private final Object[] array;
+
+        Node(Object editToken) {
+            this(editToken, new Object[WIDTH]);
+        }
+
+        Node(Object editToken, Object[] array) {
+            this.editToken = editToken;
+            this.array = array;
+        }
+    }
+
+    /**
+     * Creates a vector holding the given elements in order.
+     */
+    static <E> PersistentVector<E> of(List<? extends E> elements) {
+        PersistentVector<E> vector = new PersistentVector<>();
+        for (E element : elements) {
+            vector.add(element);
+        }
+        return vector;
+    }
+
+    int size() {
+        return size;
+    }
+
+    E get(int index) {
+        Objects.checkIndex(index, size);
+        return lookup(root, shift, index);
+    }
+
+    void set(int index, E element) {
+        Objects.checkIndex(index, size);
+        editableLeaf(index)[index & MASK] = element;
+    }
+
+    void add(E element) {
+        if (size == WIDTH << shift) {
+            Node grown = new Node(editToken);
+            grown.array[0] = root;
+            root = grown;
+            shift += BITS;
+        }
+        editableLeaf(size)[size & MASK] = element;
+        size++;
+    }
+
+    /**
+     * Returns an immutable view of the current elements. Later changes to this vector do not show in it.
+     */
+    List<E> snapshot() {
+        List<E> snapshot = new Snapshot<>(root, shift, size);
+        editToken = new Object();
+        return snapshot;
+    }
+
+    /**
+     * Returns the leaf array holding the given index, copying any node on its path that is not this vector's.
+     */
+    private Object[] editableLeaf(int index) {
+        root = editable(root);
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            int slot = (index >>> level) & MASK;
+            Node child = (Node) node.array[slot];
+            child = child == null ? new Node(editToken) : editable(child);
+            node.array[slot] = child;
+            node = child;
+        }
+        return node.array;
+    }
+
+    private Node editable(Node node) {
+        return node.editToken == editToken ? node : new Node(editToken, node.array.clone());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E lookup(Node root, int shift, int index) {
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.array[(index >>> level) & MASK];
+        }
+        return (E) node.array[index & MASK];
+    }
+
+    /**
+     * A frozen version of the vector.
+     */
+    private static final class Snapshot<E> extends AbstractList<E> implements RandomAccess {
+        private final Node root;
+        private final int shift;
+        private final int size;
+
+        Snapshot(Node root, int shift, int size) {
+            this.root = root;
+            this.shift = shift;
+            this.size = size;
+        }
+
+        @Override
+        public E get(int index) {
+            Objects.checkIndex(index, size);
+            return lookup(root, shift, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
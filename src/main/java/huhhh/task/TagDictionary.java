@@ -0,0 +1,53 @@
+package huhhh.task;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The process-wide mapping between normalized tag names and small integer ids.
+ *
+ * <p>Tasks store only the ids, so a tag shared by many tasks is held as one string here. Ids are never
+ * reused or removed. Lookups are lock-free; registering a new tag takes a lock.</p>
+ */
+final class TagDictionary {
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[16];
+    private static int count;
+
+    private TagDictionary() {
+    }
+
+    /**
+     * Returns the id of the given normalized tag, registering it if it is new.
+     */
+    static int idOf(String tag) {
+        Integer id = IDS.get(tag);
+        return id != null ? id : register(tag);
+    }
+
+    /**
+     * Returns the id of the given normalized tag, or -1 if no task has ever carried it.
+     */
+    static int lookup(String tag) {
+        Integer id = IDS.get(tag);
+        return id != null ? id : -1;
+    }
+
+    static String nameOf(int id) {
+        return names[id];
+    }
+
+    private static synchronized int register(String tag) {
+        Integer existing = IDS.get(tag);
+        if (existing != null) {
+            return existing;
+        }
+        if (count == names.length) {
+            names = Arrays.copyOf(names, count * 2);
+        }
+        names[count] = tag;
+        IDS.put(tag, count);
+        return count++;
+    }
+}
@@ -0,0 +1,78 @@
+package huhhh.task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bitmap per tag of the slots of the tasks carrying it, used to answer tag queries with word-wise bitmap
+ * operations instead of checking every task. Bitmaps are indexed by {@link TagDictionary} id and hold the
+ * slots of {@link TaskList}, which do not shift on delete, so a delete only clears the task's own bits.
+ * Slots are neither list positions nor the {@code @id} ids shown to users; the list maps them to both.
+ */
+class TagIndex {
+    private final List<Bitmap> bitmaps = new ArrayList<>();
+    private final Bitmap live = new Bitmap();
+
+    /**
+     * Records a task added to the list in the given slot.
+     */
+    void add(Task task, int slot) {
+        for (int tagId : task.tagIds()) {
+            bitmapOf(tagId).set(slot);
+        }
+        live.set(slot);
+    }
+
+    /**
+     * Records the removal of the given task from the given slot.
+     */
+    void remove(Task task, int slot) {
+        for (int tagId : task.tagIds()) {
+            bitmapOf(tagId).clear(slot);
+        }
+        live.clear(slot);
+    }
+
+    /**
+     * Records a change to the tags of the task in the given slot.
+     *
+     * @param before The task's tag ids before the change.
+     * @param after  The task's tag ids after the change.
+     */
+    void retag(int slot, int[] before, int[] after) {
+        for (int tagId : before) {
+            bitmapOf(tagId).clear(slot);
+        }
+        for (int tagId : after) {
+            bitmapOf(tagId).set(slot);
+        }
+    }
+
+    /**
+     * Returns a copy of the slots of every task in the list.
+     */
+    Bitmap all() {
+        return live.copy();
+    }
+
+    /**
+     * Returns a copy of the slots of the tasks carrying the given normalized tag.
+     */
+    Bitmap slotsOf(String tag) {
+        int tagId = TagDictionary.lookup(tag);
+        if (tagId < 0 || tagId >= bitmaps.size() || bitmaps.get(tagId) == null) {
+            return new Bitmap();
+        }
+        return bitmaps.get(tagId).copy();
+    }
+
+    private Bitmap bitmapOf(int tagId) {
+        while (bitmaps.size() <= tagId) {
+            bitmaps.add(null);
+        }
+        if (bitmaps.get(tagId) == null) {
+            bitmaps.set(tagId, new Bitmap());
+        }
+        return bitmaps.get(tagId);
+    }
+}
@@ -0,0 +1,150 @@
+package huhhh.task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import huhhh.HuhhhException;
+
+/**
+ * A boolean query over tags, such as {@code #work AND NOT #done} or {@code (#a OR #b) AND #c}.
+ *
+ * <p>{@code NOT} binds tightest, then {@code AND}, then {@code OR}; operators are case-insensitive and two
+ * terms next to each other are joined with {@code AND}. Tags follow the same rules as {@link Task#hasTag},
+ * so a single {@code #tag} finds exactly what it always did, and a tag that cannot exist matches nothing.</p>
+ */
+public class TagQuery {
+    private static final String USAGE = "Usage: find #a AND #b | find #a OR #b | find NOT #c";
+
+    private final Node root;
+
+    private TagQuery(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * A node of the parsed query that evaluates to the slots of the matching tasks.
+     */
+    private interface Node {
+        Bitmap evaluate(TagIndex index);
+    }
+
+    /**
+     * Returns true if the input should be read as a tag query rather than a description keyword, which is
+     * when any of its words, ignoring parentheses, is a {@code #tag}. Keywords such as "not sure" or "(draft)"
+     * are still searched for in descriptions.
+     */
+    public static boolean isTagQuery(String input) {
+        boolean isWordStart = true;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '#' && isWordStart) {
+                return true;
+            }
+            isWordStart = Character.isWhitespace(c) || c == '(' || c == ')';
+        }
+        return false;
+    }
+
+    /**
+     * Parses a tag query.
+     *
+     * @param input The query text.
+     * @return The parsed query.
+     * @throws HuhhhException If the query is malformed.
+     */
+    public static TagQuery parse(String input) throws HuhhhException {
+        List<String> tokens = new ArrayList<>();
+        for (String token : input.replace("(", " ( ").replace(")", " ) ").trim().split("\\s+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        Tokens reader = new Tokens(tokens, input);
+        Node root = reader.parseOr();
+        if (reader.hasNext()) {
+            throw reader.error();
+        }
+        return new TagQuery(root);
+    }
+
+    /**
+     * Returns the slots of the tasks matching this query.
+     */
+    Bitmap evaluate(TagIndex index) {
+        return root.evaluate(index);
+    }
+
+    /**
+     * A recursive-descent reader over the query tokens.
+     */
+    private static class Tokens {
+        private final List<String> tokens;
+        private final String input;
+        private int position;
+
+        Tokens(List<String> tokens, String input) {
+            this.tokens = tokens;
+            this.input = input;
+        }
+
+        boolean hasNext() {
+            return position < tokens.size();
+        }
+
+        Node parseOr() throws HuhhhException {
+            Node left = parseAnd();
+            while (accept("OR")) {
+                Node first = left;
+                Node second = parseAnd();
+                left = index -> first.evaluate(index).or(second.evaluate(index));
+            }
+            return left;
+        }
+
+        Node parseAnd() throws HuhhhException {
+            Node left = parseNot();
+            while (hasNext() && !peekIs("OR") && !peekIs(")")) {
+                accept("AND");
+                Node first = left;
+                Node second = parseNot();
+                left = index -> first.evaluate(index).and(second.evaluate(index));
+            }
+            return left;
+        }
+
+        Node parseNot() throws HuhhhException {
+            if (accept("NOT")) {
+                Node operand = parseNot();
+                return index -> index.all().andNot(operand.evaluate(index));
+            }
+            if (accept("(")) {
+                Node inner = parseOr();
+                if (!accept(")")) {
+                    throw error();
+                }
+                return inner;
+            }
+            if (!hasNext() || !tokens.get(position).startsWith("#")) {
+                throw error();
+            }
+            String tag = Task.normalizeStorageTag(tokens.get(position++));
+            return index -> tag == null ? new Bitmap() : index.slotsOf(tag);
+        }
+
+        private boolean peekIs(String keyword) {
+            return hasNext() && tokens.get(position).equalsIgnoreCase(keyword);
+        }
+
+        private boolean accept(String keyword) {
+            if (peekIs(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        HuhhhException error() {
+            return new HuhhhException("Invalid tag query: " + input.trim() + "\n" + USAGE);
+        }
+    }
+}
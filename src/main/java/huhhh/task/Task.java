@@ -1,10 +1,11 @@
 package huhhh.task;
 
+import java.util.AbstractSet;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import huhhh.HuhhhException;
 
@@ -12,10 +13,13 @@ import huhhh.HuhhhException;
  * Represents a general task with a description and completion status.
  * To be used as a base class for specific task types.
  */
-public abstract class Task {
+public abstract class Task implements Cloneable {
+    private static final int[] NO_TAGS = new int[0];
+
     private final String description;
     private boolean isDone;
-    private final Set<String> tags = new LinkedHashSet<>();
+    /** Ids from {@link TagDictionary} in the order the tags were added. Replaced, never changed in place. */
+    private int[] tagIds = NO_TAGS;
 
     /**
      * Constructs a Task with the given description.
@@ -30,14 +34,14 @@ public abstract class Task {
     /**
      * Returns the task description.
      */
-    protected String getDescription() {
+    public String getDescription() {
         return description;
     }
 
     /**
      * Returns true if the task is marked done.
      */
-    protected boolean isDone() {
+    public boolean isDone() {
         return isDone;
     }
 
@@ -60,7 +64,7 @@ public abstract class Task {
      */
     public boolean hasTag(String rawTag) {
         String normalized = normalizeStorageTag(rawTag);
-        return normalized != null && tags.contains(normalized);
+        return normalized != null && hasTagId(TagDictionary.lookup(normalized));
     }
 
     /**
@@ -71,7 +75,7 @@ public abstract class Task {
      */
     public void addTag(String rawTag) throws HuhhhException {
         String normalized = normalizeTagStrict(rawTag);
-        tags.add(normalized);
+        addTagId(TagDictionary.idOf(normalized));
     }
 
     /**
@@ -82,14 +86,78 @@ public abstract class Task {
      */
     public void removeTag(String rawTag) throws HuhhhException {
         String normalized = normalizeTagStrict(rawTag);
-        tags.remove(normalized);
+        int id = TagDictionary.lookup(normalized);
+        for (int i = 0; i < tagIds.length; i++) {
+            if (tagIds[i] == id) {
+                int[] remaining = Arrays.copyOf(tagIds, tagIds.length - 1);
+                System.arraycopy(tagIds, i + 1, remaining, i, tagIds.length - i - 1);
+                tagIds = remaining;
+                return;
+            }
+        }
     }
 
     /**
-     * Returns an unmodifiable view of the tags.
+     * Returns an unmodifiable view of the tags, in the order they were added.
      */
     public Set<String> getTags() {
-        return Collections.unmodifiableSet(tags);
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                int[] ids = tagIds;
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < ids.length;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (next == ids.length) {
+                            throw new NoSuchElementException();
+                        }
+                        return TagDictionary.nameOf(ids[next++]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return tagIds.length;
+            }
+
+            @Override
+            public boolean contains(Object tag) {
+                return tag instanceof String && hasTagId(TagDictionary.lookup((String) tag));
+            }
+        };
+    }
+
+    /**
+     * Returns the tag ids in the order they were added. The array is replaced rather than modified when the
+     * tags change, so a returned array is a stable snapshot and must not be modified by the caller.
+     */
+    int[] tagIds() {
+        return tagIds;
+    }
+
+    private boolean hasTagId(int id) {
+        for (int tagId : tagIds) {
+            if (tagId == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addTagId(int id) {
+        if (!hasTagId(id)) {
+            int[] grown = Arrays.copyOf(tagIds, tagIds.length + 1);
+            grown[tagIds.length] = id;
+            tagIds = grown;
+        }
     }
 
     /**
@@ -106,7 +174,7 @@ public abstract class Task {
         for (String token : trimmed.split(",")) {
             String normalized = normalizeStorageTag(token);
             if (normalized != null) {
-                tags.add(normalized);
+                addTagId(TagDictionary.idOf(normalized));
             }
         }
     }
@@ -116,38 +184,55 @@ public abstract class Task {
      * Returns empty string when there are no tags.
      */
     protected String serialisedTagsField() {
-        if (tags.isEmpty()) {
+        if (tagIds.length == 0) {
             return "";
         }
-        return String.join(",", tags);
+        return String.join(",", getTags());
     }
 
     /**
      * Extract tags from a free-form argument string.
      * Tags are tokens that start with '#'. Returns description with tag tokens removed.
+     *
+     * <p>Scans the string once by index, copying description words straight into one builder, so only the
+     * description, the tags and the result are allocated.</p>
      */
     public static ParsedTextWithTags parseDescriptionAndTags(String raw) {
         if (raw == null) {
             return new ParsedTextWithTags("", Set.of());
         }
 
-        String[] tokens = raw.trim().split("\\s+");
-        if (tokens.length == 1 && tokens[0].isEmpty()) {
-            return new ParsedTextWithTags("", Set.of());
+        StringBuilder description = new StringBuilder(raw.length());
+        Set<String> tags = null;
+        int length = raw.length();
+        int start = 0;
+        while (true) {
+            while (start < length && raw.charAt(start) <= ' ') {
+                start++;
+            }
+            if (start == length) {
+                break;
+            }
+            int end = start;
+            while (end < length && raw.charAt(end) > ' ') {
+                end++;
+            }
+            if (raw.charAt(start) == '#') {
+                String tag = normalizeTag(raw.substring(start, end));
+                if (tag != null) {
+                    tags = tags == null ? new LinkedHashSet<>() : tags;
+                    tags.add(tag);
+                }
+            } else {
+                if (description.length() > 0) {
+                    description.append(' ');
+                }
+                description.append(raw, start, end);
+            }
+            start = end;
         }
 
-        Set<String> tags = Arrays.stream(tokens)
-                .filter(t -> t.startsWith("#"))
-                .map(Task::normalizeTag)
-                .filter(t -> t != null)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-
-        String description = Arrays.stream(tokens)
-                .filter(t -> !t.startsWith("#"))
-                .collect(Collectors.joining(" "))
-                .trim();
-
-        return new ParsedTextWithTags(description, tags);
+        return new ParsedTextWithTags(description.toString(), tags == null ? Set.of() : tags);
     }
 
     /**
@@ -173,16 +258,29 @@ public abstract class Task {
         this.isDone = false;
     }
 
+    /**
+     * Returns a shallow copy of this task. The copy shares the tag id array, which is never changed in place,
+     * so later changes to either task do not show in the other.
+     */
+    Task copy() {
+        try {
+            return (Task) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     @Override
     public String toString() {
         String base = String.format("[%s] %s", getStatusIcon(), description);
-        if (tags.isEmpty()) {
+        if (tagIds.length == 0) {
             return base;
         }
-        String renderedTags = tags.stream()
-                .map(t -> "#" + t)
-                .collect(Collectors.joining(" "));
-        return base + " (" + renderedTags + ")";
+        StringBuilder rendered = new StringBuilder(base).append(" (");
+        for (int i = 0; i < tagIds.length; i++) {
+            rendered.append(i == 0 ? "#" : " #").append(TagDictionary.nameOf(tagIds[i]));
+        }
+        return rendered.append(")").toString();
     }
 
     /**
@@ -208,7 +306,7 @@ public abstract class Task {
             return null;
         }
         // allow letters/digits/_/- only
-        if (!t.matches("[a-z0-9_-]+")) {
+        if (!isValidTagName(t)) {
             return null;
         }
 
@@ -225,7 +323,7 @@ public abstract class Task {
         return normalized;
     }
 
-    private static String normalizeStorageTag(String rawTag) {
+    static String normalizeStorageTag(String rawTag) {
         if (rawTag == null) {
             return null;
         }
@@ -236,12 +334,27 @@ public abstract class Task {
         if (t.isEmpty()) {
             return null;
         }
-        if (!t.matches("[a-z0-9_-]+")) {
+        if (!isValidTagName(t)) {
             return null;
         }
         return t;
     }
 
+    /**
+     * Returns true if the lower-cased tag consists only of letters, digits, '_' and '-'.
+     * Checked by hand since this runs for every tag lookup and a regex would be compiled each time.
+     */
+    private static boolean isValidTagName(String tag) {
+        for (int i = 0; i < tag.length(); i++) {
+            char c = tag.charAt(i);
+            boolean isValid = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+            if (!isValid) {
+                return false;
+            }
+        }
+        return !tag.isEmpty();
+    }
+
     /**
      * Serialises the task into a string format suitable for storage.
      *
@@ -1,8 +1,18 @@
 package huhhh.task;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
 import huhhh.HuhhhException;
@@ -10,16 +20,72 @@ import huhhh.HuhhhException;
 /**
  * Represents a list of tasks and provides methods to manipulate them.
  * Methods include add , delete, mark, unmark, and serialize tasks.
+ *
+ * <p>Besides its position, each task has a stable id for the lifetime of the list: ids start at 1 in list
+ * order and new tasks get the next one. Ids are not saved, so a list loaded again numbers its tasks afresh.
+ * Tasks are stored in slots, and deleting a task tombstones its slot instead of shifting the rest, so the
+ * secondary indexes keyed by slot stay valid. Positions are mapped to slots by an order array from which each
+ * delete removes its entry. Once more than half the slots are dead, the live tasks are compacted into fresh
+ * slots, which then remember their tasks' ids, so a run of deletes costs amortised O(1) each besides that
+ * removal.</p>
  */
 public class TaskList {
-    private final List<Task> tasks;
+    /** Compaction waits for at least this many dead slots, so that small lists never bother. */
+    private static final int MIN_DEAD_TO_COMPACT = 64;
+
+    /** Tasks by slot. A deleted task's slot is tombstoned rather than removed until the next compaction. */
+    private List<Task> slots;
+    private final BitSet tombstones = new BitSet();
+    private int liveCount;
+    /** The 0-based id of the task in each slot, ascending; null before the first compaction, when they are equal. */
+    private int[] slotIds;
+    /** The 0-based id the next added task gets. */
+    private int nextId;
+    /** Slots of the live tasks in list order, with spare capacity; null when not built yet. */
+    private int[] order;
+    /** Whether a snapshot reads the current order array, so it must be copied before an entry is removed. */
+    private boolean isOrderShared;
+    /** The live tasks in list order. */
+    private final List<Task> tasks = new LiveTasks();
+    /** Built on the first keyword search so that loading stays lazy, then kept up to date. */
+    private KeywordIndex keywordIndex;
+    /** Built on the first tag search, then kept up to date. */
+    private TagIndex tagIndex;
+    /** Built on the first deadline search, then kept up to date. */
+    private DeadlineIndex deadlineIndex;
+    /** Built on the first event search, then kept up to date. */
+    private EventIndex eventIndex;
+    /**
+     * Frozen copies of the tasks by slot, null for deleted ones. Built by a snapshot and kept up to date while
+     * any snapshot is unreleased; the first change after the last release drops it.
+     */
+    private PersistentVector<Task> versions;
+    /** The number of snapshots not released yet. Changed by {@link #release(List)} on any thread. */
+    private final AtomicInteger liveSnapshots = new AtomicInteger();
 
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this.slots = new ArrayList<>();
     }
 
     public TaskList(List<Task> tasks) {
-        this.tasks = new ArrayList<>(tasks);
+        this.slots = new ArrayList<>(tasks);
+        this.liveCount = slots.size();
+        this.nextId = liveCount;
+    }
+
+    /**
+     * Creates a task list that uses the given mutable list directly instead of copying it,
+     * so a lazily decoded list from storage stays lazy.
+     *
+     * @param tasks The mutable list to use.
+     * @return The task list.
+     */
+    public static TaskList wrap(List<Task> tasks) {
+        TaskList taskList = new TaskList();
+        taskList.slots = tasks;
+        taskList.liveCount = tasks.size();
+        taskList.nextId = tasks.size();
+        return taskList;
     }
 
     /**
@@ -28,11 +94,42 @@ public class TaskList {
      * @param task The task to be added.
      */
     public void add(Task task) {
-        tasks.add(task);
+        int slot = slots.size();
+        slots.add(task);
+        if (slotIds != null) {
+            if (slotIds.length == slot) {
+                slotIds = Arrays.copyOf(slotIds, slot * 2);
+            }
+            slotIds[slot] = nextId;
+        }
+        nextId++;
+        if (order != null) {
+            if (order.length == liveCount) {
+                order = Arrays.copyOf(order, liveCount * 2);
+            }
+            order[liveCount] = slot;
+        }
+        liveCount++;
+        if (keywordIndex != null) {
+            keywordIndex.add(task);
+        }
+        if (tagIndex != null) {
+            tagIndex.add(task, slot);
+        }
+        if (deadlineIndex != null) {
+            deadlineIndex.add(task);
+        }
+        if (eventIndex != null) {
+            eventIndex.add(task);
+        }
+        if (isTrackingVersions()) {
+            versions.add(task.copy());
+        }
     }
 
     /**
      * Deletes a task from the task list by its index.
+     * Later tasks move up one position but keep their ids.
      *
      * @param index The index of the task to be deleted.
      * @return The deleted task.
@@ -40,10 +137,104 @@ public class TaskList {
      */
     public Task delete(int index) throws HuhhhException {
         Task task = getTask(index);
-        tasks.remove(index);
+        removeSlot(slotAt(index), task);
+        if (order != null) {
+            unshareOrder();
+            System.arraycopy(order, index + 1, order, index, liveCount - index);
+        }
+        compactIfSparse();
         return task;
     }
 
+    /**
+     * Deletes the tasks at the given indices in one pass.
+     * The indices refer to positions before any of the deletions, so they are all resolved up front
+     * and the order array is closed up in one pass rather than once per task.
+     *
+     * @param indices The distinct indices of the tasks to be deleted, in ascending order.
+     * @return The deleted tasks, in list order.
+     * @throws HuhhhException if any index is out of bounds, in which case nothing is deleted.
+     */
+    public List<Task> deleteAll(int[] indices) throws HuhhhException {
+        List<Task> removed = new ArrayList<>(indices.length);
+        int[] deleted = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            removed.add(getTask(indices[i]));
+            deleted[i] = slotAt(indices[i]);
+        }
+        int oldCount = liveCount;
+        for (int i = 0; i < deleted.length; i++) {
+            removeSlot(deleted[i], removed.get(i));
+        }
+        if (order != null && indices.length > 0) {
+            unshareOrder();
+            int next = 0;
+            int write = indices[0];
+            for (int read = indices[0]; read < oldCount; read++) {
+                if (next < indices.length && indices[next] == read) {
+                    next++;
+                } else {
+                    order[write++] = order[read];
+                }
+            }
+        }
+        compactIfSparse();
+        return removed;
+    }
+
+    private void removeSlot(int slot, Task task) {
+        tombstones.set(slot);
+        slots.set(slot, null);
+        liveCount--;
+        if (isTrackingVersions()) {
+            versions.set(slot, null);
+        }
+        if (keywordIndex != null) {
+            keywordIndex.remove(task);
+        }
+        if (tagIndex != null) {
+            tagIndex.remove(task, slot);
+        }
+        if (deadlineIndex != null) {
+            deadlineIndex.remove(task);
+        }
+        if (eventIndex != null) {
+            eventIndex.remove(task);
+        }
+    }
+
+    private void unshareOrder() {
+        if (isOrderShared) {
+            order = order.clone();
+            isOrderShared = false;
+        }
+    }
+
+    /**
+     * Moves the live tasks into fresh slots once most slots are dead, so that the dead ones are not scanned or
+     * kept forever. The work is paid for by the deletes since the last compaction.
+     */
+    private void compactIfSparse() {
+        int dead = slots.size() - liveCount;
+        if (dead < MIN_DEAD_TO_COMPACT || dead <= liveCount) {
+            return;
+        }
+        List<Task> live = new ArrayList<>(liveCount);
+        int[] ids = new int[Math.max(16, liveCount + liveCount / 2)];
+        for (int slot = tombstones.nextClearBit(0); slot < slots.size(); slot = tombstones.nextClearBit(slot + 1)) {
+            ids[live.size()] = idOfSlot(slot);
+            live.add(slots.get(slot));
+        }
+        slots = live;
+        slotIds = ids;
+        tombstones.clear();
+        order = null;
+        isOrderShared = false;
+        // Both are keyed by slot; snapshots already taken keep their own versions.
+        tagIndex = null;
+        versions = null;
+    }
+
     /**
      * Marks a task as done by its index.
      *
@@ -54,6 +245,7 @@ public class TaskList {
     public Task mark(int index) throws HuhhhException {
         Task task = getTask(index);
         task.markAsDone();
+        recordVersion(index, task);
         return task;
     }
 
@@ -67,6 +259,7 @@ public class TaskList {
     public Task unmark(int index) throws HuhhhException {
         Task task = getTask(index);
         task.markUndone();
+        recordVersion(index, task);
         return task;
     }
 
@@ -83,12 +276,18 @@ public class TaskList {
         if (rawTags == null || rawTags.isEmpty()) {
             throw new HuhhhException("Tag command requires at least one tag.\nUsage: tag <index> #tag [#tag...] ");
         }
+        int[] before = task.tagIds();
         try {
             for (String t : rawTags) {
                 task.addTag(t);
             }
         } catch (IllegalArgumentException e) {
             throw new HuhhhException(e.getMessage());
+        } finally {
+            if (tagIndex != null) {
+                tagIndex.retag(slotAt(index), before, task.tagIds());
+            }
+            recordVersion(index, task);
         }
         return task;
     }
@@ -107,23 +306,123 @@ public class TaskList {
             throw new HuhhhException(
                     "Untag command requires at least one tag.\nUsage: untag <index> #tag [#tag...] ");
         }
+        int[] before = task.tagIds();
         try {
             for (String t : rawTags) {
                 task.removeTag(t);
             }
         } catch (IllegalArgumentException e) {
             throw new HuhhhException(e.getMessage());
+        } finally {
+            if (tagIndex != null) {
+                tagIndex.retag(slotAt(index), before, task.tagIds());
+            }
+            recordVersion(index, task);
         }
         return task;
     }
 
+    /**
+     * Returns the stable id of the task at the given index.
+     *
+     * @param index The index of the task.
+     * @return The task's id, starting from 1.
+     * @throws HuhhhException if the index is out of bounds.
+     */
+    public int idOf(int index) throws HuhhhException {
+        getTask(index);
+        return idOfSlot(slotAt(index)) + 1;
+    }
+
+    /**
+     * Returns the current index of the task with the given stable id.
+     *
+     * @param id The task's id, starting from 1.
+     * @return The task's 0-based index.
+     * @throws HuhhhException if no live task has that id.
+     */
+    public int indexOfId(int id) throws HuhhhException {
+        if (!containsId(id)) {
+            throw new HuhhhException("There is no task with id @" + id + ".\n"
+                    + "Ids are numbered afresh each time your list is loaded; use list to see the current ones.");
+        }
+        int slot = slotOfId(id - 1);
+        if (tombstones.isEmpty()) {
+            return slot;
+        }
+        return Arrays.binarySearch(order(), 0, liveCount, slot);
+    }
+
+    /**
+     * Checks if a live task has the given stable id.
+     *
+     * @param id The id to check, starting from 1.
+     * @return true if a task with that id exists and has not been deleted.
+     */
+    public boolean containsId(int id) {
+        if (id < 1) {
+            return false;
+        }
+        int slot = slotOfId(id - 1);
+        return slot >= 0 && !tombstones.get(slot);
+    }
+
+    /**
+     * Returns the number of live tasks whose id is at most the given one, in O(log n).
+     * Ids increase along the list, so these are the first tasks, and the tasks with ids in a range are the run
+     * of positions between two such counts.
+     *
+     * @param id The largest id to count, starting from 1.
+     * @return The number of live tasks with an id up to and including it.
+     */
+    public int countIdsUpTo(int id) {
+        int low = 0;
+        int high = liveCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (idOfSlot(slotAt(mid)) < id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the slot of the task with the given 0-based id, dead or alive, or -1 if it has none.
+     */
+    private int slotOfId(int id) {
+        if (slotIds == null) {
+            return id < slots.size() ? id : -1;
+        }
+        int slot = Arrays.binarySearch(slotIds, 0, slots.size(), id);
+        return slot < 0 ? -1 : slot;
+    }
+
+    private int idOfSlot(int slot) {
+        return slotIds == null ? slot : slotIds[slot];
+    }
+
+    /**
+     * Returns the indices of the tasks that satisfy the given condition, in one pass over the list.
+     *
+     * @param condition The condition to test each task against.
+     * @return The matching 0-based indices in ascending order.
+     */
+    public int[] indicesMatching(Predicate<Task> condition) {
+        return IntStream.range(0, tasks.size())
+                .filter(i -> condition.test(tasks.get(i)))
+                .toArray();
+    }
+
     /**
      * Returns the number of tasks in the task list.
      *
      * @return The size of the task list.
      */
     public int size() {
-        return tasks.size();
+        return liveCount;
     }
 
     /**
@@ -132,7 +431,7 @@ public class TaskList {
      * @return true if the task list is empty, false otherwise.
      */
     public boolean isEmpty() {
-        return tasks.isEmpty();
+        return liveCount == 0;
     }
 
     /**
@@ -151,15 +450,22 @@ public class TaskList {
 
     /**
      * Retrieves all the tasks that have a matching keyword in
-     * its description.
+     * its description. Keywords of three or more characters are looked up in a trigram index,
+     * so the cost follows the number of candidates rather than the size of the list.
      *
      * @param keyword String to match in the description
      * @return A TaskList containing matching tasks.
      */
     public TaskList findTasks(String keyword) {
-        return new TaskList(tasks.stream()
-                .filter(task -> task.containsKeyword(keyword))
-                .toList());
+        if (!KeywordIndex.canSearch(keyword)) {
+            return new TaskList(tasks.stream()
+                    .filter(task -> task.containsKeyword(keyword))
+                    .toList());
+        }
+        if (keywordIndex == null) {
+            keywordIndex = KeywordIndex.of(tasks);
+        }
+        return wrap(keywordIndex.find(keyword));
     }
 
     /**
@@ -169,9 +475,180 @@ public class TaskList {
      * @return A TaskList containing matching tasks.
      */
     public TaskList findTasksByTag(String rawTag) {
-        return new TaskList(tasks.stream()
-                .filter(task -> task.hasTag(rawTag))
-                .toList());
+        String tag = Task.normalizeStorageTag(rawTag);
+        return tag == null ? new TaskList() : tasksAt(tagIndex().slotsOf(tag));
+    }
+
+    /**
+     * Retrieves all the tasks matching the given tag query, using the per-tag bitmaps.
+     *
+     * @param query The parsed tag query.
+     * @return A TaskList containing matching tasks.
+     */
+    public TaskList findTasks(TagQuery query) {
+        return tasksAt(query.evaluate(tagIndex()));
+    }
+
+    /**
+     * Retrieves the deadlines due between the given dates inclusive, earliest first.
+     *
+     * @param from The earliest due date.
+     * @param to   The latest due date.
+     * @return A TaskList containing the matching deadlines.
+     */
+    public TaskList findDeadlinesBetween(LocalDate from, LocalDate to) {
+        return wrap(deadlineIndex().between(from, to, false));
+    }
+
+    /**
+     * Retrieves the deadlines that are not done and were due before the given date, earliest first.
+     *
+     * @param today The current date.
+     * @return A TaskList containing the overdue deadlines.
+     */
+    public TaskList findOverdue(LocalDate today) {
+        return wrap(deadlineIndex().between(LocalDate.MIN, today.minusDays(1), true));
+    }
+
+    /**
+     * Retrieves the scheduled events that overlap the given range, ordered by start.
+     *
+     * @param from The start of the range, inclusive.
+     * @param to   The end of the range, exclusive.
+     * @return A TaskList containing the overlapping events.
+     */
+    public TaskList findEventsBetween(LocalDateTime from, LocalDateTime to) {
+        return wrap(new ArrayList<>(eventIndex().overlapping(from, to)));
+    }
+
+    /**
+     * Returns every pair of scheduled events whose times overlap, each pair once.
+     *
+     * @return The conflicting pairs, ordered by the start of the earlier event.
+     */
+    public List<Event[]> findConflicts() {
+        return eventIndex().conflicts();
+    }
+
+    private EventIndex eventIndex() {
+        if (eventIndex == null) {
+            eventIndex = EventIndex.of(tasks);
+        }
+        return eventIndex;
+    }
+
+    private DeadlineIndex deadlineIndex() {
+        if (deadlineIndex == null) {
+            deadlineIndex = DeadlineIndex.of(tasks);
+        }
+        return deadlineIndex;
+    }
+
+    private TagIndex tagIndex() {
+        if (tagIndex == null) {
+            tagIndex = new TagIndex();
+            for (int slot = tombstones.nextClearBit(0); slot < slots.size(); slot = tombstones.nextClearBit(slot + 1)) {
+                tagIndex.add(slots.get(slot), slot);
+            }
+        }
+        return tagIndex;
+    }
+
+    private TaskList tasksAt(Bitmap matching) {
+        List<Task> matches = new ArrayList<>();
+        for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+            matches.add(slots.get(slot));
+        }
+        return wrap(matches);
+    }
+
+    private int slotAt(int index) {
+        return tombstones.isEmpty() ? index : order()[index];
+    }
+
+    /**
+     * Returns the order array, building it from the tombstones on the first positional access after the first
+     * delete since the list was created or compacted. Later deletes keep it up to date.
+     */
+    private int[] order() {
+        if (order == null) {
+            int[] built = new int[Math.max(16, liveCount + liveCount / 2)];
+            int index = 0;
+            for (int slot = tombstones.nextClearBit(0); slot < slots.size(); slot = tombstones.nextClearBit(slot + 1)) {
+                built[index++] = slot;
+            }
+            order = built;
+        }
+        return order;
+    }
+
+    /**
+     * Returns an immutable snapshot of the tasks in list order, which later changes to this list do not affect.
+     * The snapshot can be read on another thread, e.g. to save it in the background.
+     *
+     * <p>The first snapshot copies every task once; after that, while any snapshot is unreleased, a snapshot
+     * costs O(1) and each change copies the changed task and O(log n) of the structure, which is shared with
+     * earlier snapshots. Pass each snapshot to {@link #release(List)} once it is no longer needed, so that the
+     * list can drop those copies instead of keeping a second copy of every task; the next snapshot then copies
+     * every task again. The tasks in a snapshot are frozen copies and must not be changed.</p>
+     *
+     * @return The snapshot.
+     */
+    public List<Task> snapshot() {
+        if (versions == null) {
+            versions = PersistentVector.of(slots.stream()
+                    .map(task -> task == null ? null : task.copy())
+                    .toList());
+        }
+        // Positions below the current size never change in this order array; later deletes copy it first.
+        int[] positions = tombstones.isEmpty() ? null : order();
+        isOrderShared = positions != null;
+        liveSnapshots.incrementAndGet();
+        return new Snapshot(versions.snapshot(), positions, liveCount, liveSnapshots);
+    }
+
+    private void recordVersion(int index, Task task) {
+        if (isTrackingVersions()) {
+            versions.set(slotAt(index), task.copy());
+        }
+    }
+
+    /**
+     * Returns whether a change must be copied into the versions, first dropping them if every snapshot has been
+     * released. Snapshots already taken keep their own structure, so dropping the versions never affects them.
+     */
+    private boolean isTrackingVersions() {
+        if (versions != null && liveSnapshots.get() == 0) {
+            versions = null;
+        }
+        return versions != null;
+    }
+
+    /**
+     * Tells the list that made the given snapshot that it is no longer needed, e.g. once it has been saved.
+     * Once every snapshot of a list is released, the list stops keeping the frozen copies of its tasks that make
+     * the next snapshot cheap. Releasing a snapshot twice, or any other list, does nothing. Safe on any thread.
+     *
+     * @param snapshot A list returned by {@link #snapshot()}.
+     */
+    public static void release(List<Task> snapshot) {
+        if (snapshot instanceof Snapshot) {
+            ((Snapshot) snapshot).release();
+        }
+    }
+
+    /**
+     * Returns whether the list currently keeps frozen copies of its tasks for snapshots.
+     */
+    boolean hasVersions() {
+        return versions != null;
+    }
+
+    /**
+     * Returns an unmodifiable view of the tasks in list order.
+     */
+    public List<Task> getTasks() {
+        return Collections.unmodifiableList(tasks);
     }
 
     /**
@@ -185,14 +662,87 @@ public class TaskList {
                 .toList();
     }
 
-    @Override
-    public String toString() {
+    /**
+     * Renders the tasks between two positions, one numbered line per task, so that showing a page of a long list
+     * costs time and memory in proportion to the page rather than the list.
+     *
+     * @param from The first position to render, inclusive.
+     * @param to   The last position to render, exclusive.
+     * @return The rendered lines, or the empty-list message if the list is empty.
+     * @throws IndexOutOfBoundsException If the range is not within the list.
+     */
+    public String render(int from, int to) {
         if (tasks.isEmpty()) {
             return "You have no tasks in your list.";
         }
+        Objects.checkFromToIndex(from, to, tasks.size());
+        StringBuilder lines = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                lines.append('\n');
+            }
+            lines.append(i + 1).append(". ").append(tasks.get(i));
+            int id = idOfSlot(slotAt(i));
+            if (id != i) {
+                lines.append(" (@").append(id + 1).append(')');
+            }
+        }
+        return lines.toString();
+    }
 
-        return IntStream.range(0, tasks.size())
-                .mapToObj(i -> (i + 1) + ". " + tasks.get(i))
-                .collect(Collectors.joining("\n"));
+    @Override
+    public String toString() {
+        return render(0, tasks.size());
+    }
+
+    /**
+     * A frozen version of the list, mapping positions to slots with the order array of its time.
+     */
+    private static class Snapshot extends AbstractList<Task> implements RandomAccess {
+        private final List<Task> versions;
+        private final int[] positions;
+        private final int size;
+        private final AtomicInteger ownerLiveSnapshots;
+        private final AtomicBoolean isReleased = new AtomicBoolean();
+
+        Snapshot(List<Task> versions, int[] positions, int size, AtomicInteger ownerLiveSnapshots) {
+            this.versions = versions;
+            this.positions = positions;
+            this.size = size;
+            this.ownerLiveSnapshots = ownerLiveSnapshots;
+        }
+
+        void release() {
+            if (isReleased.compareAndSet(false, true)) {
+                ownerLiveSnapshots.decrementAndGet();
+            }
+        }
+
+        @Override
+        public Task get(int index) {
+            Objects.checkIndex(index, size);
+            return versions.get(positions == null ? index : positions[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * A read-only view of the live tasks in list order.
+     */
+    private class LiveTasks extends AbstractList<Task> implements RandomAccess {
+        @Override
+        public Task get(int index) {
+            Objects.checkIndex(index, liveCount);
+            return slots.get(slotAt(index));
+        }
+
+        @Override
+        public int size() {
+            return liveCount;
+        }
     }
 }
@@ -0,0 +1,148 @@
+package huhhh.ui;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import huhhh.Huhhh;
+import huhhh.HuhhhException;
+
+/**
+ * Runs commands against Huhhh on a single background thread and hands each reply to a listener.
+ *
+ * <p>Commands run one at a time in the order they were submitted, so Huhhh only ever has one writer and
+ * needs no locking. Input submitted while a command is running waits in the executor's queue. Replies are
+ * handed over through the delivery executor in the same order; the GUI passes {@code Platform::runLater},
+ * whose tasks also run in order, so the listener is always called on the JavaFX thread.</p>
+ *
+ * <p>Huhhh itself is obtained as the first task on the command thread, so the window can open before the
+ * task list has loaded and anything typed meanwhile simply waits behind the load.</p>
+ *
+ * <p>Every submitted command gets exactly one reply, even if loading or the command fails unexpectedly, so the
+ * pending count always returns to zero.</p>
+ */
+public class CommandRunner implements AutoCloseable {
+    /** Only touched from the command thread. */
+    private Huhhh huhhh;
+    private final Executor delivery;
+    private final Listener listener;
+    private final ExecutorService commands = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "huhhh-commands");
+        // Non-daemon, so queued commands and their saves still finish if the window closes first.
+        thread.setDaemon(false);
+        return thread;
+    });
+
+    /** Only touched from the delivery executor. Starts at 1 for the load. */
+    private int pending = 1;
+
+    /**
+     * Receives replies and changes in the number of commands still to run, on the delivery executor.
+     */
+    public interface Listener {
+        void onReady();
+
+        void onReply(String reply, boolean isExit);
+
+        void onPendingChanged(int pending);
+    }
+
+    /**
+     * Creates a runner and starts obtaining the application in the background.
+     * One command is pending until it is ready.
+     *
+     * @param loader   Supplies the application to run commands against; no other thread may use it afterwards.
+     * @param delivery Runs the listener calls, in the order they are given to it.
+     * @param listener Receives each reply.
+     */
+    public CommandRunner(Supplier<Huhhh> loader, Executor delivery, Listener listener) {
+        this.delivery = delivery;
+        this.listener = listener;
+        commands.execute(() -> {
+            String error = null;
+            try {
+                huhhh = loader.get();
+            } catch (RuntimeException e) {
+                Logger.showError("Failed to load tasks: " + e);
+                error = "Sorry, your tasks could not be loaded: " + e.getMessage();
+            }
+            String loadError = error;
+            delivery.execute(() -> {
+                pending--;
+                listener.onPendingChanged(pending);
+                if (loadError != null) {
+                    listener.onReply(loadError, false);
+                }
+                listener.onReady();
+            });
+        });
+    }
+
+    /**
+     * Queues a command to run after every command submitted before it.
+     * Must be called on the delivery executor's thread.
+     *
+     * @param input The user input.
+     * @return False if the runner has been closed and the command was dropped.
+     */
+    public boolean submit(String input) {
+        try {
+            commands.execute(() -> run(input));
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        pending++;
+        listener.onPendingChanged(pending);
+        return true;
+    }
+
+    /**
+     * Runs one command on the command thread and delivers its reply, or an error reply if it fails unexpectedly.
+     */
+    private void run(String input) {
+        String reply;
+        boolean isExit = false;
+        if (huhhh == null) {
+            reply = "Sorry, your tasks could not be loaded, so commands cannot run.";
+        } else {
+            try {
+                reply = huhhh.getResponse(input);
+                isExit = huhhh.isExit();
+            } catch (RuntimeException e) {
+                Logger.showError("Command failed: " + input + ": " + e);
+                reply = "Sorry, something went wrong running that command: " + e.getMessage();
+            }
+        }
+        String finalReply = reply;
+        boolean finalIsExit = isExit;
+        delivery.execute(() -> {
+            pending--;
+            listener.onPendingChanged(pending);
+            listener.onReply(finalReply, finalIsExit);
+        });
+    }
+
+    /**
+     * Stops accepting commands. Commands already queued still run, then Huhhh is closed so any unsaved
+     * changes are written.
+     */
+    @Override
+    public void close() {
+        try {
+            commands.execute(() -> {
+                try {
+                    if (huhhh != null) {
+                        huhhh.close();
+                    }
+                } catch (HuhhhException e) {
+                    Logger.showError(e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Already closed.
+        }
+        commands.shutdown();
+    }
+}
@@ -1,13 +1,10 @@
 package huhhh.ui;
 
-import java.io.IOException;
 import java.util.Collections;
-import java.util.Objects;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
@@ -18,42 +15,76 @@ import javafx.scene.layout.HBox;
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ *
+ * <p>The box is built in code rather than loaded from FXML, so creating one does not parse XML. Its styles
+ * come from {@code dialog-box.css}, which the scene loads once for every box.</p>
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    private static final double SPACING = 10;
+    private static final double PICTURE_SIZE = 50;
+    private static final Insets BOX_PADDING = new Insets(15, 5, 15, 5);
+    private static final Insets LABEL_PADDING = new Insets(8, 10, 8, 10);
+
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+
+    private boolean isReply;
 
     private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            Logger.showError(e.getMessage());
-        }
+        getStyleClass().add("dialog-box");
+        setAlignment(Pos.TOP_RIGHT);
+        setSpacing(SPACING);
+        setPadding(BOX_PADDING);
+        setMaxWidth(Double.MAX_VALUE);
+        setMaxHeight(Double.MAX_VALUE);
+
+        dialog.setWrapText(true);
+        dialog.setMinHeight(USE_PREF_SIZE);
+        dialog.setPadding(LABEL_PADDING);
 
-        // Ensure styles are applied even when this DialogBox is created programmatically.
-        this.getStylesheets().add(Objects.requireNonNull(
-                MainWindow.class.getResource("/css/dialog-box.css")).toExternalForm());
+        displayPicture.setId("displayPicture");
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
 
+        getChildren().setAll(dialog, displayPicture);
         dialog.setText(text);
         displayPicture.setImage(img);
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Flips the dialog box between the user's layout, with the ImageView on the right,
+     * and the reply layout, with the ImageView on the left.
      */
     private void flip() {
         ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
         Collections.reverse(tmp);
         getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+        isReply = !isReply;
+        setAlignment(isReply ? Pos.TOP_LEFT : Pos.TOP_RIGHT);
 
         // Adjust bubble corner styling for the flipped (reply) dialog.
-        dialog.getStyleClass().add("reply-label");
+        if (isReply) {
+            dialog.getStyleClass().add("reply-label");
+        } else {
+            dialog.getStyleClass().remove("reply-label");
+        }
+    }
+
+    /**
+     * Shows another message in this dialog box, so that a list cell can reuse it instead of building a new one.
+     *
+     * @param text    The text to be displayed in the dialog box.
+     * @param img     The image to be displayed in the dialog box.
+     * @param isReply Whether the message is Huhhh's reply rather than the user's input.
+     */
+    void show(String text, Image img, boolean isReply) {
+        dialog.setText(text);
+        displayPicture.setImage(img);
+        if (isReply != this.isReply) {
+            flip();
+        }
     }
 
     /**
@@ -2,6 +2,7 @@ package huhhh.ui;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import huhhh.Huhhh;
 import javafx.application.Application;
@@ -12,26 +13,47 @@ import javafx.stage.Stage;
 
 /**
  * The GUI layer for the Huhhh JavaFX application.
+ *
+ * <p>The window is shown as soon as its FXML has loaded. The task list loads in the background at the same
+ * time, and commands typed before it is ready are queued behind it.</p>
  */
 public class GraphicUi extends Application {
-    private final Huhhh huhhh = new Huhhh();
+    private final StartupTimer startupTimer = new StartupTimer();
+    private MainWindow mainWindow;
 
     @Override
     public void start(Stage stage) {
+        startupTimer.mark("toolkit started");
+        CompletableFuture<Huhhh> huhhh = CompletableFuture.supplyAsync(() -> {
+            Huhhh loaded = new Huhhh();
+            startupTimer.mark("tasks loaded");
+            return loaded;
+        });
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(Huhhh.class.getResource("/view/MainWindow.fxml"));
             AnchorPane ap = fxmlLoader.load();
+            startupTimer.mark("window loaded");
             Scene scene = new Scene(ap);
-            scene.getStylesheets().add(
-                    Objects.requireNonNull(Huhhh.class.getResource("/css/main.css")).toExternalForm());
+            scene.getStylesheets().addAll(
+                    Objects.requireNonNull(Huhhh.class.getResource("/css/main.css")).toExternalForm(),
+                    Objects.requireNonNull(Huhhh.class.getResource("/css/dialog-box.css")).toExternalForm());
             stage.setTitle("Huhhh");
             stage.setScene(scene);
             stage.setMinHeight(220);
             stage.setMinWidth(417);
-            fxmlLoader.<MainWindow>getController().setHuhhh(huhhh);
+            mainWindow = fxmlLoader.getController();
+            mainWindow.setHuhhh(huhhh::join, () -> startupTimer.mark("ready for input"));
             stage.show();
+            startupTimer.mark("window shown");
         } catch (IOException e) {
             Logger.showError(e.getMessage());
         }
     }
+
+    @Override
+    public void stop() {
+        if (mainWindow != null) {
+            mainWindow.shutdown();
+        }
+    }
 }
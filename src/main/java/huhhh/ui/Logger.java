@@ -1,5 +1,7 @@
 package huhhh.ui;
 
+import java.util.List;
+
 /**
  * * A simple logger for displaying error messages to the standard error stream.
  */
@@ -8,7 +10,16 @@ public class Logger {
         System.err.println("[!] " + message);
     }
 
+    public static void showInfo(String message) {
+        System.err.println("[i] " + message);
+    }
+
     public static void showLoadingError(String message) {
         showError("Unable to load previous tasks, starting with an empty list.\n" + message);
     }
+
+    public static void showSkippedEntries(List<String> entries) {
+        showError("Skipped " + entries.size() + " corrupted entries; the original file was kept with a .corrupt suffix."
+                + "\n" + String.join("\n", entries));
+    }
 }
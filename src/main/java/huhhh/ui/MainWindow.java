@@ -1,75 +1,171 @@
 package huhhh.ui;
 
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import huhhh.Huhhh;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 
 /**
  * Controller for the main GUI.
+ *
+ * <p>The conversation is shown in a ListView, which only creates cells for the visible rows and reuses them
+ * as the view scrolls, so rendering cost follows the window height rather than the session length.
+ * Only the latest {@value #MAX_MESSAGES} messages are kept.</p>
+ *
+ * <p>Commands run on a {@link CommandRunner} thread, so a slow command or a disk stall never blocks the
+ * window. The user's message is shown at once, input typed meanwhile is queued behind it, and replies are
+ * shown in order as they arrive, with a busy indicator while any command is still running.</p>
  */
 public class MainWindow extends AnchorPane {
     private static final String USER_IMAGE_RESOURCE_PATH = "/images/DaUser.png";
     private static final String HUHHH_IMAGE_RESOURCE_PATH = "/images/DaHuhhh.png";
+    private static final int MAX_MESSAGES = 1000;
+    /** Room left beside a dialog box for the list's scroll bar and cell padding. */
+    private static final double CELL_INSET = 20;
 
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<Message> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressIndicator busyIndicator;
 
-    private Huhhh huhhh;
+    private CommandRunner runner;
 
-    private final Image userImage = new Image(
-            Objects.requireNonNull(this.getClass().getResourceAsStream(USER_IMAGE_RESOURCE_PATH)));
-    private final Image huhhhImage = new Image(
-            Objects.requireNonNull(this.getClass().getResourceAsStream(HUHHH_IMAGE_RESOURCE_PATH)));
+    private final ObservableList<Message> messages = FXCollections.observableArrayList();
+    // Decoded on JavaFX's background loader, in parallel with the rest of the window.
+    private final Image userImage = loadImage(USER_IMAGE_RESOURCE_PATH);
+    private final Image huhhhImage = loadImage(HUHHH_IMAGE_RESOURCE_PATH);
 
     /**
      * Initializes the main window controller.
      */
     @FXML
     public void initialize() {
-        assert scrollPane != null : "fx:id 'scrollPane' was not injected. Check MainWindow.fxml.";
-        assert dialogContainer != null : "fx:id 'dialogContainer' was not injected. Check MainWindow.fxml.";
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        assert dialogList != null : "fx:id 'dialogList' was not injected. Check MainWindow.fxml.";
+        dialogList.setItems(messages);
+        dialogList.setCellFactory(list -> new MessageCell(list));
+        dialogList.setFocusTraversable(false);
+    }
+
+    /**
+     * Starts obtaining the Huhhh instance on the command thread. Input typed before it is ready is queued.
+     *
+     * @param loader  Supplies the instance; from here on it is only used from the command thread.
+     * @param onReady Runs on the JavaFX thread once the instance is ready.
+     */
+    public void setHuhhh(Supplier<Huhhh> loader, Runnable onReady) {
+        runner = new CommandRunner(loader, Platform::runLater, new CommandRunner.Listener() {
+            @Override
+            public void onReady() {
+                onReady.run();
+            }
+
+            @Override
+            public void onReply(String reply, boolean isExit) {
+                showReply(reply, isExit);
+            }
+
+            @Override
+            public void onPendingChanged(int pending) {
+                busyIndicator.setVisible(pending > 0);
+            }
+        });
+        busyIndicator.setVisible(true);
     }
 
-    /** Injects the Huhhh instance */
-    public void setHuhhh(Huhhh h) {
-        huhhh = h;
+    /**
+     * Stops running commands once those already queued have finished and saved.
+     */
+    public void shutdown() {
+        if (runner != null) {
+            runner.close();
+        }
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Huhh's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Shows the user's input, queues it to run and clears the input field.
+     * The reply is added by {@link #showReply} when the command finishes.
      */
     @FXML
     private void handleUserInput() {
-        assert huhhh != null : "Huhhh instance not injected; call setHuhhh() before user interaction.";
+        assert runner != null : "Huhhh instance not injected; call setHuhhh() before user interaction.";
 
         String input = userInput.getText();
-        String response = huhhh.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDukeDialog(response, huhhhImage)
-        );
+        if (runner.submit(input)) {
+            addMessages(new Message(input, true));
+        }
         userInput.clear();
+    }
+
+    private static Image loadImage(String resourcePath) {
+        String url = Objects.requireNonNull(MainWindow.class.getResource(resourcePath)).toExternalForm();
+        return new Image(url, true);
+    }
 
-        if (huhhh.isExit()) {
+    private void showReply(String reply, boolean isExit) {
+        addMessages(new Message(reply, false));
+        if (isExit) {
             userInput.setDisable(true);
             sendButton.setDisable(true);
+            runner.close();
             Platform.exit();
         }
     }
+
+    /**
+     * Appends messages to the conversation, dropping the oldest ones beyond {@value #MAX_MESSAGES}.
+     */
+    private void addMessages(Message... added) {
+        messages.addAll(added);
+        int excess = messages.size() - MAX_MESSAGES;
+        if (excess > 0) {
+            messages.remove(0, excess);
+        }
+        dialogList.scrollTo(messages.size() - 1);
+    }
+
+    /**
+     * A list cell that shows a message in one DialogBox, reused for whichever message the cell displays.
+     */
+    private class MessageCell extends ListCell<Message> {
+        private final ListView<Message> list;
+        private DialogBox dialogBox;
+
+        MessageCell(ListView<Message> list) {
+            this.list = list;
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+            // Let the list's width, not the text's, decide the cell width, so long replies wrap.
+            setPrefWidth(0);
+        }
+
+        @Override
+        protected void updateItem(Message message, boolean isEmpty) {
+            super.updateItem(message, isEmpty);
+            if (isEmpty || message == null) {
+                setGraphic(null);
+                return;
+            }
+            if (dialogBox == null) {
+                dialogBox = DialogBox.getUserDialog("", userImage);
+                dialogBox.prefWidthProperty().bind(list.widthProperty().subtract(CELL_INSET));
+            }
+            dialogBox.show(message.getText(), message.isFromUser() ? userImage : huhhhImage, !message.isFromUser());
+            setGraphic(dialogBox);
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package huhhh.ui;
+
+/**
+ * One entry in the conversation shown by the main window.
+ */
+public class Message {
+    private final String text;
+    private final boolean isFromUser;
+
+    /**
+     * Constructs a Message.
+     *
+     * @param text       The text of the message.
+     * @param isFromUser Whether the user sent it, rather than Huhhh.
+     */
+    public Message(String text, boolean isFromUser) {
+        this.text = text;
+        this.isFromUser = isFromUser;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isFromUser() {
+        return isFromUser;
+    }
+}
@@ -0,0 +1,49 @@
+package huhhh.ui;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each phase of the GUI start takes, measured from when the timer was created.
+ *
+ * <p>Run with {@code -Dhuhhh.startupTiming=true} to print each phase to the standard error stream as it
+ * completes. The last phase, when the window is shown and the tasks have loaded, is the time to first
+ * interaction.</p>
+ */
+public class StartupTimer {
+    public static final String ENABLED_PROPERTY = "huhhh.startupTiming";
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final boolean isEnabled;
+
+    public StartupTimer() {
+        this(Boolean.getBoolean(ENABLED_PROPERTY));
+    }
+
+    StartupTimer(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    /**
+     * Records that a phase has just completed. A phase recorded twice keeps its first time.
+     *
+     * @param phase The name of the phase.
+     * @return The milliseconds since the timer was created.
+     */
+    public synchronized long mark(String phase) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (phases.putIfAbsent(phase, millis) == null && isEnabled) {
+            Logger.showInfo(String.format("Startup: %s after %d ms", phase, millis));
+        }
+        return millis;
+    }
+
+    /**
+     * Returns each recorded phase with its time in milliseconds, in the order they completed.
+     */
+    public synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(phases);
+    }
+}
@@ -0,0 +1,79 @@
+package huhhh.ui;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import huhhh.Huhhh;
+import huhhh.HuhhhException;
+
+/**
+ * The headless text interface, which streams commands from a reader and writes each response in a box.
+ *
+ * <p>Output goes through a buffered writer that is flushed at checkpoints and at the end, not per line,
+ * so a script of thousands of commands is not slowed down by console writes.</p>
+ */
+public class TextUi {
+    private static final String DIVIDER = "    " + "_".repeat(60);
+    private static final String INDENT = "     ";
+
+    private final PrintWriter out;
+
+    public TextUi(PrintWriter out) {
+        this.out = out;
+    }
+
+    /**
+     * Runs every command read from the given reader until "bye" or the end of the input.
+     * Changes are saved every {@code checkpointInterval} commands and once more at the end.
+     *
+     * @param huhhh              The application to run the commands against.
+     * @param in                 The commands, one per line.
+     * @param checkpointInterval The number of commands between saves, or 0 to save only at the end.
+     * @return The number of commands run.
+     * @throws IOException If the input cannot be read.
+     */
+    public int run(Huhhh huhhh, BufferedReader in, int checkpointInterval) throws IOException {
+        showResponse("Hello! I'm Huhhh\nWhat can I do for you?");
+        int count = 0;
+        String line;
+        while (!huhhh.isExit() && (line = in.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            showResponse(huhhh.getResponse(line));
+            count++;
+            if (checkpointInterval > 0 && count % checkpointInterval == 0) {
+                checkpoint(huhhh);
+            }
+        }
+        try {
+            huhhh.close();
+        } catch (HuhhhException e) {
+            Logger.showError(e.getMessage());
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Writes a response between dividers, indenting every line.
+     */
+    public void showResponse(String response) {
+        out.println(DIVIDER);
+        for (String line : response.split("\n", -1)) {
+            out.println(INDENT + line);
+        }
+        out.println(DIVIDER);
+        out.println();
+    }
+
+    private void checkpoint(Huhhh huhhh) {
+        try {
+            huhhh.checkpoint();
+        } catch (HuhhhException e) {
+            Logger.showError(e.getMessage());
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,36 @@
+package huhhh;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import huhhh.storage.Durability;
+
+public class HuhhhTest {
+    @Test
+    void getResponse_idRangeBeyondTheLastId_selectsOnlyLiveTasks() throws Exception {
+        Path saveFile = Files.createTempDirectory("huhhh-main-").resolve("huhhh.txt");
+        Huhhh huhhh = new Huhhh(saveFile.toString(), Durability.PER_COMMAND);
+        for (String description : new String[] {"a", "b", "c", "d"}) {
+            huhhh.getResponse("todo " + description);
+        }
+        huhhh.getResponse("delete 2");
+
+        String marked = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> huhhh.getResponse("mark @3-@2000000000"));
+        assertTrue(marked.startsWith("Nice! I've marked these 2 tasks as done:"), marked);
+        assertEquals("No tasks matched your selection.", assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> huhhh.getResponse("unmark @5-@2147483647")));
+        String removed = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> huhhh.getResponse("delete @1-@2147483647"));
+        assertTrue(removed.startsWith("Noted. I've removed these 3 tasks:"), removed);
+        assertTrue(removed.endsWith("Now you have 0 tasks in the list."), removed);
+        huhhh.close();
+    }
+}
@@ -3,9 +3,11 @@ package huhhh.command;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -110,4 +112,81 @@ public class ParserTest {
         HuhhhException ex = assertThrows(HuhhhException.class, () -> Parser.parseIndexAndTags("2 fun"));
         assertEquals("Tags must start with '#'. Invalid tag: fun", ex.getMessage());
     }
+
+    @Test
+    void parseDateRange_validAndReversed() throws Exception {
+        Parser.ParsedDateRange range = Parser.parseDateRange(" 2026-01-01   2026-01-31 ");
+        assertEquals(LocalDate.of(2026, 1, 1), range.getFrom());
+        assertEquals(LocalDate.of(2026, 1, 31), range.getTo());
+        assertThrows(HuhhhException.class, () -> Parser.parseDateRange("2026-02-01 2026-01-01"));
+        assertThrows(HuhhhException.class, () -> Parser.parseDateRange("2026-02-01"));
+    }
+
+    @Test
+    void parseReference_positionsAndIds() throws Exception {
+        assertEquals(2, Parser.parseReference(" 3 ").getValue());
+        Parser.ParsedIndexAndTags byId = Parser.parseIndexAndTags("@12 #fun");
+        assertThrows(IllegalStateException.class, byId::getIndex);
+        Parser.ParsedReference id = byId.getReference();
+        assertTrue(id.isId());
+        assertEquals(12, id.getValue());
+        assertThrows(HuhhhException.class, () -> Parser.parseReference("@x"));
+    }
+
+    @Test
+    void parseSelection_rangesListsAndKeywords() throws Exception {
+        Parser.ParsedSelection ranges = Parser.parseSelection("3, 7,9-20,@4-@6");
+        assertEquals(Parser.ParsedSelection.Kind.RANGES, ranges.getKind());
+        assertEquals(4, ranges.getRanges().size());
+        assertEquals(8, ranges.getRanges().get(2)[0].getValue());
+        assertEquals(19, ranges.getRanges().get(2)[1].getValue());
+        assertTrue(ranges.getRanges().get(3)[1].isId());
+
+        assertEquals(Parser.ParsedSelection.Kind.DONE, Parser.parseSelection("done").getKind());
+        Parser.ParsedSelectionAndTags find = Parser.parseSelectionAndTags("find:report #q3");
+        assertEquals(Parser.ParsedSelection.Kind.FIND, find.getSelection().getKind());
+        assertEquals("report", find.getSelection().getKeyword());
+        assertEquals("#q3", find.getTags().get(0));
+
+        assertThrows(HuhhhException.class, () -> Parser.parseSelection("5-2"));
+        assertThrows(HuhhhException.class, () -> Parser.parseSelection("1-@3"));
+        assertThrows(HuhhhException.class, () -> Parser.parseSelection("1,,2"));
+        assertThrows(HuhhhException.class, () -> Parser.parseSelection("find:"));
+    }
+
+    @Test
+    void parsePage_defaultsAndOptions() throws Exception {
+        Parser.ParsedPage whole = Parser.parsePage("");
+        assertEquals(1, whole.getPage());
+        assertEquals(Parser.DEFAULT_PAGE_SIZE, whole.getPageSize());
+
+        Parser.ParsedPage page = Parser.parsePage("--limit 50 page 3");
+        assertEquals(3, page.getPage());
+        assertEquals(50, page.getPageSize());
+
+        assertThrows(HuhhhException.class, () -> Parser.parsePage("page 0"));
+        assertThrows(HuhhhException.class, () -> Parser.parsePage("page"));
+        assertThrows(HuhhhException.class, () -> Parser.parsePage("page 2 page 3"));
+        assertThrows(HuhhhException.class, () -> Parser.parsePage("all"));
+    }
+
+    @Test
+    void parse_keywordIgnoresCaseAndSurroundingWhitespace() throws Exception {
+        Parser.ParsedCommand parsed = Parser.parse("\t DeadLine return book /by 2026-12-02  \n");
+        assertEquals(Command.DEADLINE, parsed.getCommand());
+        assertEquals("return book /by 2026-12-02", parsed.getArguments());
+
+        assertEquals(Command.EVENTS, Command.fromChars("list events", 5, 11));
+        assertEquals(Command.UNKNOWN, Command.fromString("unknown"));
+        assertEquals(Command.UNKNOWN, Command.fromString("lists"));
+        assertThrows(HuhhhException.class, () -> Parser.parse("todoread book"));
+    }
+
+    @Test
+    void parseIndexAndTags_splitsOnAnyWhitespace() throws Exception {
+        Parser.ParsedIndexAndTags parsed = Parser.parseIndexAndTags("  2 \t#work   #q3 ");
+        assertEquals(List.of("#work", "#q3"), parsed.getTags());
+        assertThrows(HuhhhException.class, () -> Parser.parseIndexAndTags("2 work"));
+        assertThrows(HuhhhException.class, () -> Parser.parseIndexAndTags("   "));
+    }
 }
@@ -0,0 +1,152 @@
+package huhhh.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class HuhhhServerTest {
+    /**
+     * A line-protocol client for tests.
+     */
+    private static class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client(HuhhhServer server) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        String send(String line) throws IOException {
+            out.println(line);
+            StringBuilder response = new StringBuilder();
+            String reply;
+            while ((reply = in.readLine()) != null && !reply.isEmpty()) {
+                response.append(response.length() == 0 ? "" : "\n").append(reply);
+            }
+            return response.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private static HuhhhServer startServer(Path dataDirectory, int maxLoadedUsers) throws IOException {
+        HuhhhServer server = new HuhhhServer(0, dataDirectory, maxLoadedUsers);
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+
+    @Test
+    void connections_haveSeparateTaskListsPerUser() throws Exception {
+        Path dataDirectory = Files.createTempDirectory("huhhh-server-");
+        try (HuhhhServer server = startServer(dataDirectory, 8);
+                Client alice = new Client(server);
+                Client bob = new Client(server)) {
+            assertTrue(alice.send("todo read book").startsWith("Please identify yourself first."));
+            assertEquals("Hello alice! I'm Huhhh\nWhat can I do for you?", alice.send("user alice"));
+            bob.send("user bob");
+
+            alice.send("todo read book");
+            bob.send("todo return book");
+            bob.send("mark 1");
+
+            assertEquals("Here are the tasks in your list:\n1. [T][ ] read book", alice.send("list"));
+            assertEquals("Here are the tasks in your list:\n1. [T][X] return book", bob.send("list"));
+            assertEquals("Bye. Hope to see you again soon!", alice.send("bye"));
+        }
+        assertTrue(Files.readString(dataDirectory.resolve("alice.txt")).startsWith("T | 0 | read book"));
+    }
+
+    @Test
+    void idleUsers_areEvictedAndReloadedFromDisk() throws Exception {
+        Path dataDirectory = Files.createTempDirectory("huhhh-server-");
+        try (HuhhhServer server = startServer(dataDirectory, 1)) {
+            try (Client alice = new Client(server)) {
+                alice.send("user alice");
+                alice.send("todo read book");
+                try (Client bob = new Client(server)) {
+                    bob.send("user bob");
+                    assertEquals(2, server.loadedUserCount());
+                    bob.send("bye");
+                }
+                alice.send("bye");
+            }
+            try (Client carol = new Client(server)) {
+                carol.send("user carol");
+                assertEquals(1, server.loadedUserCount());
+            }
+            try (Client alice = new Client(server)) {
+                alice.send("user alice");
+                assertEquals("Here are the tasks in your list:\n1. [T][ ] read book", alice.send("list"));
+            }
+        }
+    }
+
+    @Test
+    void userNames_differingOnlyInCase_shareOneSession() throws Exception {
+        Path dataDirectory = Files.createTempDirectory("huhhh-server-");
+        try (HuhhhServer server = startServer(dataDirectory, 8);
+                Client upper = new Client(server);
+                Client lower = new Client(server)) {
+            assertEquals("Hello alice! I'm Huhhh\nWhat can I do for you?", upper.send("user Alice"));
+            lower.send("user alice");
+            upper.send("todo read book");
+            lower.send("todo return book");
+
+            assertEquals(1, server.loadedUserCount());
+            assertEquals("Here are the tasks in your list:\n1. [T][ ] read book\n2. [T][ ] return book",
+                    upper.send("list"));
+        }
+        try (Stream<Path> files = Files.list(dataDirectory)) {
+            assertEquals(List.of("alice.txt"), files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".txt"))
+                    .toList());
+        }
+    }
+
+    @Test
+    void byeWithArguments_endsOnlyThatConnection() throws Exception {
+        Path dataDirectory = Files.createTempDirectory("huhhh-server-");
+        try (HuhhhServer server = startServer(dataDirectory, 8);
+                Client first = new Client(server);
+                Client second = new Client(server)) {
+            first.send("user alice");
+            second.send("user alice");
+            first.send("todo read book");
+
+            assertEquals("Bye. Hope to see you again soon!", first.send("bye now"));
+            assertNull(first.in.readLine());
+            assertEquals("Here are the tasks in your list:\n1. [T][ ] read book", second.send("list"));
+        }
+    }
+
+    @Test
+    void parseUser_rejectsUnsafeNames() {
+        assertEquals("alice_01", HuhhhServer.parseUser("USER alice_01"));
+        assertEquals("alice", HuhhhServer.parseUser("user Alice"));
+        assertNull(HuhhhServer.parseUser("user ../alice"));
+        assertNull(HuhhhServer.parseUser("user"));
+        assertNull(HuhhhServer.parseUser("user bob smith"));
+    }
+}
@@ -0,0 +1,50 @@
+package huhhh.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class SessionCacheTest {
+    @Test
+    void acquire_concurrentEvictionsAndReloads_keepEveryCommand() throws Exception {
+        Path dataDirectory = Files.createTempDirectory("huhhh-sessions-");
+        SessionCache cache = new SessionCache(dataDirectory, 1);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String user = "user" + (t % 4);
+            results.add(threads.submit(() -> {
+                for (int i = 0; i < 25; i++) {
+                    SessionCache.Session session = cache.acquire(user);
+                    try {
+                        session.execute("todo task " + i);
+                    } finally {
+                        cache.release(session);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        threads.shutdown();
+        cache.closeAll();
+
+        SessionCache reloaded = new SessionCache(dataDirectory, 4);
+        for (int u = 0; u < 4; u++) {
+            SessionCache.Session session = reloaded.acquire("user" + u);
+            assertEquals(50, session.execute("list").split("\n").length - 1);
+            reloaded.release(session);
+        }
+        reloaded.closeAll();
+    }
+}
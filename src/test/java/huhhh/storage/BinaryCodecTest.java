@@ -0,0 +1,81 @@
+package huhhh.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import huhhh.HuhhhException;
+import huhhh.task.Deadline;
+import huhhh.task.Event;
+import huhhh.task.Task;
+import huhhh.task.TaskList;
+import huhhh.task.Todo;
+
+public class BinaryCodecTest {
+    private static List<Task> sampleTasks() throws HuhhhException {
+        Task todo = new Todo("pipes | and more");
+        todo.addTag("#fun");
+        todo.markAsDone();
+        Task deadline = new Deadline("return book", LocalDate.of(2026, 6, 6));
+        deadline.addTag("#school");
+        deadline.addTag("#fun");
+        Task event = new Event("project meeting", "Aug 6th 2pm", "4pm");
+        return List.of(todo, deadline, event);
+    }
+
+    @Test
+    void encodeDecode_roundTripsAllTaskTypes() throws Exception {
+        BinaryCodec codec = new BinaryCodec();
+        List<Task> decoded = codec.decode(codec.encode(sampleTasks()));
+
+        assertEquals(3, decoded.size());
+        assertEquals("[T][X] pipes | and more (#fun)", decoded.get(0).toString());
+        assertEquals("[D][ ] return book (#school #fun) (by: Jun 06 2026)", decoded.get(1).toString());
+        assertEquals("[E][ ] project meeting (from: Aug 6th 2pm to: 4pm)", decoded.get(2).toString());
+    }
+
+    @Test
+    void decode_truncatedFile_throws() {
+        byte[] bytes = new BinaryCodec().encode(List.of(new Todo("read book")));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        assertThrows(HuhhhException.class, () -> new BinaryCodec().decode(truncated));
+    }
+
+    @Test
+    void decode_versionOneWithBadCounts_throwsCorruptedSaveFile() {
+        byte[] negativeCount = {'H', 'U', 'H', 'B', 1, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f};
+        byte[] hugeCount = {'H', 'U', 'H', 'B', 1, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07};
+        byte[] hugeDictionary = {'H', 'U', 'H', 'B', 1, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07};
+        for (byte[] bytes : List.of(negativeCount, hugeCount, hugeDictionary)) {
+            assertThrows(CorruptedSaveFileException.class, () -> new BinaryCodec().decode(bytes));
+        }
+    }
+
+    @Test
+    void migrateToBinary_convertsTextFileAndStorageKeepsFormat() throws Exception {
+        Path saveFile = Files.createTempDirectory("huhhh-codec-").resolve("huhhh.txt");
+        Files.writeString(saveFile, "T | 1 | read book | fun\nD | 0 | return book | 2026-06-06\n");
+
+        assertEquals(2, StorageMigrator.migrateToBinary(saveFile));
+        assertTrue(BinaryCodec.hasHeader(Files.readAllBytes(saveFile)));
+
+        Storage storage = new Storage(saveFile);
+        TaskList tasks = new TaskList(storage.load());
+        tasks.add(new Todo("borrow book"));
+        storage.save(tasks);
+
+        assertTrue(BinaryCodec.hasHeader(Files.readAllBytes(saveFile)));
+        List<Task> reloaded = new Storage(saveFile).load();
+        assertEquals(3, reloaded.size());
+        assertEquals("[T][X] read book (#fun)", reloaded.get(0).toString());
+        assertEquals("[T][ ] borrow book", reloaded.get(2).toString());
+    }
+}
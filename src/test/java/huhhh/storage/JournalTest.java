@@ -0,0 +1,98 @@
+package huhhh.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import huhhh.task.Task;
+import huhhh.task.TaskList;
+import huhhh.task.Todo;
+
+public class JournalTest {
+    private static Path createSaveFile(String content) throws Exception {
+        Path dir = Files.createTempDirectory("huhhh-journal-");
+        Path saveFile = dir.resolve("huhhh.txt");
+        Files.writeString(saveFile, content);
+        return saveFile;
+    }
+
+    @Test
+    void persist_journaled_appendsWithoutRewritingSaveFile() throws Exception {
+        Path saveFile = createSaveFile("T | 0 | read book\n");
+        Storage storage = new Storage(saveFile, true);
+        TaskList tasks = new TaskList(storage.load());
+
+        Task task = tasks.mark(0);
+        storage.persist(tasks, Mutation.updated(0, task));
+        Task added = new Todo("borrow book");
+        tasks.add(added);
+        storage.persist(tasks, Mutation.added(added));
+
+        assertEquals("T | 0 | read book", Files.readString(saveFile).trim());
+        assertTrue(Files.size(Journal.activePath(saveFile)) > 0);
+
+        List<Task> reloaded = new Storage(saveFile, true).load();
+        assertEquals(2, reloaded.size());
+        assertEquals("[T][X] read book", reloaded.get(0).toString());
+        assertEquals("[T][ ] borrow book", reloaded.get(1).toString());
+    }
+
+    @Test
+    void close_foldsJournalIntoSaveFile() throws Exception {
+        Path saveFile = createSaveFile("T | 0 | read book\nT | 0 | join club\n");
+        Storage storage = new Storage(saveFile, true);
+        TaskList tasks = new TaskList(storage.load());
+
+        tasks.delete(0);
+        storage.persist(tasks, Mutation.deleted(0));
+        storage.close();
+
+        assertEquals("T | 0 | join club", Files.readAllLines(saveFile).get(0));
+        assertFalse(Files.exists(Journal.activePath(saveFile)));
+    }
+
+    @Test
+    void persist_pastThreshold_compactsInBackground() throws Exception {
+        Path saveFile = createSaveFile("");
+        Storage storage = new Storage(saveFile, true, 2, Long.MAX_VALUE);
+        TaskList tasks = new TaskList(storage.load());
+
+        for (int i = 0; i < 5; i++) {
+            Task task = new Todo("task " + i);
+            tasks.add(task);
+            storage.persist(tasks, Mutation.added(task));
+        }
+        storage.close();
+
+        List<String> lines = Files.readAllLines(saveFile);
+        assertEquals(6, lines.size());
+        assertEquals("T | 0 | task 4", lines.get(4));
+        assertTrue(lines.get(5).startsWith(TextCodec.CHECKSUM_PREFIX));
+    }
+
+    @Test
+    void load_tornTailRecord_isIgnored() throws Exception {
+        Path saveFile = createSaveFile("");
+        Storage storage = new Storage(saveFile, true);
+        TaskList tasks = new TaskList(storage.load());
+        Task task = new Todo("read book");
+        tasks.add(task);
+        storage.persist(tasks, Mutation.added(task));
+
+        try (OutputStream out = Files.newOutputStream(Journal.activePath(saveFile), StandardOpenOption.APPEND)) {
+            out.write(new byte[] {0, 0, 0, 0, 7});
+        }
+
+        List<Task> reloaded = new Storage(saveFile, true).load();
+        assertEquals(1, reloaded.size());
+        assertEquals("[T][ ] read book", reloaded.get(0).toString());
+    }
+}
@@ -0,0 +1,105 @@
+package huhhh.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+
+import huhhh.task.Task;
+import huhhh.task.TaskList;
+import huhhh.task.Todo;
+
+public class MappedTaskListTest {
+    private static Path createBinaryFile(int count) throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        Path saveFile = Files.createTempDirectory("huhhh-mapped-").resolve("huhhh.txt");
+        Files.write(saveFile, new BinaryCodec().encode(tasks));
+        return saveFile;
+    }
+
+    @Test
+    void open_decodesOnlyAccessedRecords() throws Exception {
+        MappedTaskList tasks = MappedTaskList.open(createBinaryFile(1000));
+
+        assertEquals(1000, tasks.size());
+        assertEquals(0, tasks.decodedCount());
+        assertEquals("[T][ ] task 500", tasks.get(500).toString());
+        assertSame(tasks.get(500), tasks.get(500));
+        assertEquals(1, tasks.decodedCount());
+    }
+
+    @Test
+    void set_clearingAnUndecodedRecord_doesNotDecodeIt() throws Exception {
+        MappedTaskList tasks = MappedTaskList.open(createBinaryFile(10));
+
+        assertNull(tasks.set(3, null));
+        assertNull(tasks.get(3));
+        assertEquals("[T][ ] task 4", tasks.get(4).toString());
+        assertEquals("[T][ ] task 4", tasks.set(4, new Todo("changed")).toString());
+    }
+
+    @Test
+    void open_indexEntryOutsideRecords_throwsCorruptedSaveFile() throws Exception {
+        Path saveFile = createBinaryFile(3);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(saveFile));
+        int footer = bytes.limit() - BinaryCodec.FOOTER_LENGTH;
+        int indexPosition = bytes.getInt(footer);
+        // Point the second record past the records and fix up the checksum, as a buggy writer would.
+        bytes.putInt(indexPosition + 4, indexPosition + 1);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array(), 0, bytes.limit() - 4);
+        bytes.putInt(bytes.limit() - 4, (int) crc.getValue());
+        Files.write(saveFile, bytes.array());
+
+        assertThrows(CorruptedSaveFileException.class, () -> MappedTaskList.open(saveFile));
+    }
+
+    @Test
+    void mutations_keepListOrder() throws Exception {
+        MappedTaskList tasks = MappedTaskList.open(createBinaryFile(5));
+
+        tasks.add(new Todo("appended"));
+        tasks.remove(1);
+        tasks.get(0).markAsDone();
+        tasks.set(2, new Todo("replaced"));
+        tasks.add(new Todo("appended again"));
+
+        assertEquals(6, tasks.size());
+        assertEquals("[T][X] task 0", tasks.get(0).toString());
+        assertEquals("[T][ ] task 2", tasks.get(1).toString());
+        assertEquals("[T][ ] replaced", tasks.get(2).toString());
+        assertEquals("[T][ ] task 4", tasks.get(3).toString());
+        assertEquals("[T][ ] appended", tasks.get(4).toString());
+        assertEquals("[T][ ] appended again", tasks.get(5).toString());
+    }
+
+    @Test
+    void load_indexedBinaryFile_isMappedAndJournaled() throws Exception {
+        Path saveFile = createBinaryFile(3);
+        Storage storage = new Storage(saveFile, true);
+        List<Task> loaded = storage.load();
+        assertInstanceOf(MappedTaskList.class, loaded);
+
+        TaskList tasks = TaskList.wrap(loaded);
+        storage.persist(tasks, Mutation.deleted(0));
+        tasks.delete(0);
+        storage.close();
+
+        List<Task> reloaded = new Storage(saveFile, true).load();
+        assertEquals(2, reloaded.size());
+        assertEquals("[T][ ] task 1", reloaded.get(0).toString());
+    }
+}
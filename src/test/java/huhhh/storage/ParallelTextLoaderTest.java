@@ -0,0 +1,67 @@
+package huhhh.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+
+import huhhh.task.Task;
+
+public class ParallelTextLoaderTest {
+    @Test
+    void load_manySmallChunks_keepsFileOrderAndChecksum() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append("T | 0 | task ").append(i).append(i % 7 == 0 ? "\r\n" : "\n");
+        }
+        content.append("T | 1 | last line without newline");
+        Path saveFile = Files.createTempFile("huhhh-parallel-", ".txt");
+        Files.writeString(saveFile, content);
+
+        ParallelTextLoader.Result result = ParallelTextLoader.load(saveFile, 64);
+
+        assertEquals(501, result.getTasks().size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("[T][ ] task " + i, result.getTasks().get(i).toString());
+        }
+        assertEquals("[T][X] last line without newline", result.getTasks().get(500).toString());
+        assertTrue(result.getErrors().isEmpty());
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(saveFile));
+        assertEquals(crc.getValue(), result.getChecksum());
+    }
+
+    @Test
+    void load_corruptedLines_reportsLineNumbersAndKeepsRest() throws Exception {
+        Path saveFile = Files.createTempFile("huhhh-parallel-", ".txt");
+        Files.writeString(saveFile, "T | 0 | first\n\nX | 0 | bad\nT | 0 | second\nT | 2 | bad flag\n");
+
+        ParallelTextLoader.Result result = ParallelTextLoader.load(saveFile, 16);
+
+        assertEquals(2, result.getTasks().size());
+        assertEquals("[T][ ] second", result.getTasks().get(1).toString());
+        assertEquals(2, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).toString().startsWith("Line 3: "));
+        assertTrue(result.getErrors().get(1).toString().startsWith("Line 5: "));
+    }
+
+    @Test
+    void storageLoad_skippingCorruptedLines_setsOriginalAsideAndRewrites() throws Exception {
+        Path saveFile = Files.createTempDirectory("huhhh-parallel-").resolve("huhhh.txt");
+        Files.writeString(saveFile, "T | 0 | first\nnot a task\nT | 1 | second\n");
+
+        List<String> skipped = new ArrayList<>();
+        List<Task> loaded = new Storage(saveFile, true).load(skipped);
+
+        assertEquals(2, loaded.size());
+        assertEquals(1, skipped.size());
+        assertTrue(Files.readString(saveFile.resolveSibling("huhhh.txt.corrupt")).contains("not a task"));
+        assertEquals(2, new Storage(saveFile).load().size());
+    }
+}
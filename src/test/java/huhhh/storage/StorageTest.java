@@ -1,6 +1,7 @@
 package huhhh.storage;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -16,6 +17,8 @@ import org.junit.jupiter.api.Test;
 import huhhh.HuhhhException;
 import huhhh.task.Deadline;
 import huhhh.task.Task;
+import huhhh.task.TaskList;
+import huhhh.task.Todo;
 
 public class StorageTest {
     private static Path createTempFileWithContent(String content) throws Exception {
@@ -91,4 +94,46 @@ public class StorageTest {
         assertEquals(1, loaded.size());
         assertEquals("[T][ ] read book (#fun #school)", loaded.get(0).toString());
     }
+
+    @Test
+    void save_writesChecksumAndRotatesBackups() throws Exception {
+        Path saveFile = Files.createTempDirectory("huhhh-storage-").resolve("huhhh.txt");
+        Storage storage = new Storage(saveFile);
+        TaskList tasks = new TaskList(storage.load());
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new Todo("task " + i));
+            storage.save(tasks);
+        }
+
+        List<String> lines = Files.readAllLines(saveFile);
+        assertEquals(6, lines.size());
+        assertTrue(lines.get(5).startsWith(TextCodec.CHECKSUM_PREFIX));
+        assertEquals(4, new Storage(saveFile.resolveSibling("huhhh.txt.bak.1")).load().size());
+        assertEquals(2, new Storage(saveFile.resolveSibling("huhhh.txt.bak.3")).load().size());
+        assertFalse(Files.exists(saveFile.resolveSibling("huhhh.txt.bak.4")));
+    }
+
+    @Test
+    void load_checksumMismatch_restoresNewestBackup() throws Exception {
+        Path saveFile = Files.createTempDirectory("huhhh-storage-").resolve("huhhh.txt");
+        Storage storage = new Storage(saveFile);
+        TaskList tasks = new TaskList(storage.load());
+        tasks.add(new Todo("read book"));
+        storage.save(tasks);
+        tasks.add(new Todo("return book"));
+        storage.save(tasks);
+        Files.writeString(saveFile, Files.readString(saveFile).replace("return", "burn"));
+
+        List<Task> loaded = new Storage(saveFile).load();
+
+        assertEquals(1, loaded.size());
+        assertEquals("[T][ ] read book", loaded.get(0).toString());
+        assertTrue(Files.readString(saveFile.resolveSibling("huhhh.txt.corrupt")).contains("burn book"));
+    }
+
+    @Test
+    void load_checksumMismatchWithoutBackup_throws() throws Exception {
+        Path saveFile = createTempFileWithContent("T | 0 | read book\n" + TextCodec.CHECKSUM_PREFIX + "00000000\n");
+        assertThrows(HuhhhException.class, () -> new Storage(saveFile).load());
+    }
 }
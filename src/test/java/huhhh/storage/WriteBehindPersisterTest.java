@@ -0,0 +1,128 @@
+package huhhh.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import huhhh.HuhhhException;
+import huhhh.task.Task;
+import huhhh.task.TaskList;
+import huhhh.task.Todo;
+
+public class WriteBehindPersisterTest {
+    private static Path createSaveFile() throws Exception {
+        return Files.createTempDirectory("huhhh-persister-").resolve("huhhh.txt");
+    }
+
+    private static void addTodo(TaskList tasks, WriteBehindPersister persister, String description)
+            throws Exception {
+        Task task = new Todo(description);
+        tasks.add(task);
+        persister.record(tasks, Mutation.added(task));
+    }
+
+    @Test
+    void record_batchMode_defersWritesUntilFlush() throws Exception {
+        Path saveFile = createSaveFile();
+        Storage storage = new Storage(saveFile, true);
+        TaskList tasks = new TaskList(storage.load());
+        WriteBehindPersister persister = new WriteBehindPersister(storage, Durability.BATCH_FSYNC, 60_000);
+
+        addTodo(tasks, persister, "read book");
+        addTodo(tasks, persister, "borrow book");
+        assertEquals(0, Files.size(Journal.activePath(saveFile)));
+
+        persister.flush();
+        assertEquals(2, Journal.read(Journal.activePath(saveFile)).size());
+        persister.close();
+    }
+
+    @Test
+    void close_flushesPendingChangesIntoSaveFile() throws Exception {
+        Path saveFile = createSaveFile();
+        Storage storage = new Storage(saveFile, true);
+        TaskList tasks = new TaskList(storage.load());
+        WriteBehindPersister persister = new WriteBehindPersister(storage, Durability.BEST_EFFORT, 60_000);
+
+        addTodo(tasks, persister, "read book");
+        persister.record(tasks, Mutation.updated(0, tasks.mark(0)));
+        persister.close();
+
+        List<Task> reloaded = new Storage(saveFile).load();
+        assertEquals(1, reloaded.size());
+        assertEquals("[T][X] read book", reloaded.get(0).toString());
+    }
+
+    @Test
+    void record_perCommand_writesImmediately() throws Exception {
+        Path saveFile = createSaveFile();
+        Storage storage = new Storage(saveFile, true);
+        TaskList tasks = new TaskList(storage.load());
+        WriteBehindPersister persister = new WriteBehindPersister(storage, Durability.PER_COMMAND, 60_000);
+
+        addTodo(tasks, persister, "read book");
+        assertEquals(1, Journal.read(Journal.activePath(saveFile)).size());
+        persister.close();
+    }
+
+    @Test
+    void record_deferredWithoutJournal_savesOnlyOnFlush() throws Exception {
+        Path saveFile = createSaveFile();
+        Storage storage = new Storage(saveFile, false);
+        TaskList tasks = new TaskList(storage.load());
+        WriteBehindPersister persister = new WriteBehindPersister(storage, Durability.DEFERRED, 1);
+
+        addTodo(tasks, persister, "read book");
+        addTodo(tasks, persister, "borrow book");
+        Thread.sleep(20);
+        assertEquals(0, Files.size(saveFile));
+
+        persister.flush();
+        assertEquals(2, new Storage(saveFile, false).load().size());
+        addTodo(tasks, persister, "return book");
+        persister.close();
+        assertEquals(3, new Storage(saveFile, false).load().size());
+    }
+
+    @Test
+    void record_afterFailedBackgroundFlush_queuesChangeBeforeReporting() throws Exception {
+        Path saveFile = createSaveFile();
+        CountDownLatch failed = new CountDownLatch(1);
+        Storage storage = new Storage(saveFile, true) {
+            @Override
+            public synchronized void append(List<Mutation> changes, boolean isForced) throws HuhhhException {
+                if (failed.getCount() > 0) {
+                    failed.countDown();
+                    throw new HuhhhException("disk full");
+                }
+                super.append(changes, isForced);
+            }
+        };
+        TaskList tasks = new TaskList(storage.load());
+        WriteBehindPersister persister = new WriteBehindPersister(storage, Durability.BATCH_FSYNC, 10);
+
+        addTodo(tasks, persister, "read book");
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        while (!persister.hasUnreportedFailure()) {
+            Thread.sleep(1);
+        }
+        HuhhhException reported = assertThrows(HuhhhException.class,
+                () -> addTodo(tasks, persister, "borrow book"));
+        assertEquals("disk full", reported.getMessage());
+        tasks.delete(0);
+        persister.record(tasks, Mutation.deleted(0));
+        persister.close();
+
+        List<Task> recovered = new Storage(saveFile, true).load();
+        assertEquals(1, recovered.size());
+        assertEquals("[T][ ] borrow book", recovered.get(0).toString());
+    }
+}
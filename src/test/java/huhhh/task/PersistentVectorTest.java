@@ -0,0 +1,40 @@
+package huhhh.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PersistentVectorTest {
+    @Test
+    void snapshots_keepTheirContentsWhileVectorChanges() {
+        Random random = new Random(17);
+        PersistentVector<Integer> vector = new PersistentVector<>();
+        List<Integer> expected = new ArrayList<>();
+        List<List<Integer>> snapshots = new ArrayList<>();
+        List<List<Integer>> copies = new ArrayList<>();
+
+        for (int step = 0; step < 5000; step++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                vector.add(step);
+                expected.add(step);
+            } else {
+                int index = random.nextInt(expected.size());
+                vector.set(index, -step);
+                expected.set(index, -step);
+            }
+            if (step % 97 == 0) {
+                snapshots.add(vector.snapshot());
+                copies.add(new ArrayList<>(expected));
+            }
+        }
+
+        assertEquals(expected, vector.snapshot());
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(copies.get(i), snapshots.get(i));
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package huhhh.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import huhhh.HuhhhException;
+
+public class TaskListTest {
+    private static String descriptionsOf(TaskList tasks) {
+        return tasks.getTasks().stream()
+                .map(Task::getDescription)
+                .collect(Collectors.joining(","));
+    }
+
+    private static String scan(TaskList tasks, String keyword) {
+        return tasks.getTasks().stream()
+                .filter(task -> task.containsKeyword(keyword))
+                .map(Task::getDescription)
+                .collect(Collectors.joining(","));
+    }
+
+    @Test
+    void findTasks_matchesSubstringScanAfterChanges() throws Exception {
+        TaskList tasks = new TaskList(List.of(new Todo("read book"), new Todo("bookmark page"),
+                new Todo("Book flight"), new Todo("return book")));
+        assertEquals("read book,bookmark page,return book", descriptionsOf(tasks.findTasks("book")));
+
+        tasks.delete(0);
+        tasks.add(new Todo("buy notebook"));
+        tasks.add(new Todo("read"));
+
+        for (String keyword : List.of("book", "ook", "Book", "ead", "read", "notebook", "kma", "zzz", "ok", "")) {
+            assertEquals(scan(tasks, keyword), descriptionsOf(tasks.findTasks(keyword)), keyword);
+        }
+        assertEquals("bookmark page,return book,buy notebook", descriptionsOf(tasks.findTasks("book")));
+    }
+
+    @Test
+    void findTasks_repeatedTrigrams_matchExactly() {
+        TaskList tasks = new TaskList(List.of(new Todo("aaaa"), new Todo("aaa"), new Todo("aab aab")));
+        assertEquals("aaaa", descriptionsOf(tasks.findTasks("aaaa")));
+        assertEquals("aab aab", descriptionsOf(tasks.findTasks("aab aa")));
+    }
+
+    @Test
+    void findTasks_tagQueries_followTagChangesAndDeletes() throws Exception {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 150; i++) {
+            Task task = new Todo("task " + i);
+            if (i % 2 == 0) {
+                task.addTag("#even");
+            }
+            if (i % 3 == 0) {
+                task.addTag("#three");
+            }
+            tasks.add(task);
+        }
+        assertEquals(25, tasks.findTasks(TagQuery.parse("#even AND #three")).size());
+
+        tasks.delete(0);
+        tasks.delete(63);
+        tasks.tag(0, List.of("#even"));
+        tasks.untag(1, List.of("#even"));
+        tasks.add(new Todo("untagged"));
+
+        for (String query : List.of("#even AND #three", "#even OR #three", "NOT #even", "#three AND NOT #even",
+                "(#even OR #three) AND NOT #missing", "#even #three", "not (#EVEN or #three)")) {
+            TaskList expected = new TaskList(tasks.getTasks().stream()
+                    .filter(task -> matches(query, task))
+                    .toList());
+            assertEquals(descriptionsOf(expected), descriptionsOf(tasks.findTasks(TagQuery.parse(query))), query);
+        }
+        assertEquals(descriptionsOf(tasks.findTasks(TagQuery.parse("#even"))),
+                descriptionsOf(tasks.findTasksByTag("EVEN")));
+    }
+
+    @Test
+    void isTagQuery_onlyWhenATagIsPresent() {
+        for (String query : List.of("#work", "NOT #done", "(#a OR #b) AND #c", "not(#a)")) {
+            assertTrue(TagQuery.isTagQuery(query), query);
+        }
+        for (String keyword : List.of("not sure", "(draft)", "NOT ready", "issue#12")) {
+            assertFalse(TagQuery.isTagQuery(keyword), keyword);
+        }
+        TaskList tasks = new TaskList(List.of(new Todo("not sure yet"), new Todo("report (draft)")));
+        assertEquals("not sure yet", descriptionsOf(tasks.findTasks("not sure")));
+        assertEquals("report (draft)", descriptionsOf(tasks.findTasks("(draft)")));
+    }
+
+    @Test
+    void tagQueryParse_malformed_throws() {
+        for (String query : List.of("#a AND", "(#a OR #b", "#a OR OR #b", "NOT", "#a )")) {
+            assertThrows(HuhhhException.class, () -> TagQuery.parse(query), query);
+        }
+    }
+
+    @Test
+    void findDeadlines_rangeAndOverdue_followChanges() throws Exception {
+        TaskList tasks = new TaskList(List.of(new Deadline("late", LocalDate.of(2026, 1, 5)),
+                new Todo("no date"), new Deadline("soon", LocalDate.of(2026, 1, 12)),
+                new Deadline("done late", LocalDate.of(2026, 1, 1)), new Deadline("later", LocalDate.of(2026, 2, 1))));
+        tasks.mark(3);
+        LocalDate today = LocalDate.of(2026, 1, 10);
+
+        assertEquals("late", descriptionsOf(tasks.findOverdue(today)));
+        assertEquals("done late,late,soon", descriptionsOf(tasks.findDeadlinesBetween(LocalDate.MIN,
+                LocalDate.of(2026, 1, 12))));
+
+        tasks.delete(0);
+        tasks.add(new Deadline("also soon", LocalDate.of(2026, 1, 12)));
+        tasks.add(new Deadline("very late", LocalDate.of(2025, 12, 1)));
+
+        assertEquals("very late", descriptionsOf(tasks.findOverdue(today)));
+        assertEquals("soon,also soon", descriptionsOf(tasks.findDeadlinesBetween(today, today.plusDays(7))));
+    }
+
+    @Test
+    void event_parsesTimesWherePossible() {
+        Event event = new Event("meeting", "2026-08-06 2pm", "4:30pm");
+        assertEquals(LocalDateTime.of(2026, 8, 6, 14, 0), event.getStart());
+        assertEquals(LocalDateTime.of(2026, 8, 6, 16, 30), event.getEnd());
+        assertEquals(LocalDateTime.of(2026, 8, 7, 2, 0), new Event("party", "2026-08-06 22:00", "2am").getEnd());
+        assertEquals(LocalDateTime.of(2026, 8, 9, 0, 0), new Event("camp", "2026-08-06", "2026-08-08").getEnd());
+        assertFalse(new Event("project meeting", "Aug 6th 2pm", "4pm").isScheduled());
+        assertFalse(new Event("backwards", "2026-08-06", "2026-08-01").isScheduled());
+    }
+
+    @Test
+    void findEvents_matchesBruteForceAfterChanges() throws Exception {
+        Random random = new Random(7);
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0).plusHours(random.nextInt(24 * 60));
+            tasks.add(new Event("event " + i, start.toString(), start.plusHours(1 + random.nextInt(30)).toString()));
+            if (i % 10 == 0) {
+                tasks.add(new Todo("todo " + i));
+            }
+        }
+        tasks.add(new Event("unscheduled", "someday", "later"));
+        tasks.findConflicts();
+        for (int i = 0; i < 50; i++) {
+            tasks.delete(random.nextInt(tasks.size()));
+            tasks.add(new Event("late " + i, "2026-01-20 9am", "2026-01-21 10am"));
+        }
+
+        LocalDateTime from = LocalDateTime.of(2026, 1, 10, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 1, 12, 0, 0);
+        List<Event> scheduled = tasks.getTasks().stream()
+                .filter(task -> task instanceof Event && ((Event) task).isScheduled())
+                .map(task -> (Event) task)
+                .toList();
+        long expected = scheduled.stream()
+                .filter(event -> event.getStart().isBefore(to) && event.getEnd().isAfter(from))
+                .count();
+        TaskList found = tasks.findEventsBetween(from, to);
+        assertEquals(expected, found.size());
+        for (int i = 1; i < found.size(); i++) {
+            Event previous = (Event) found.getTasks().get(i - 1);
+            assertFalse(((Event) found.getTasks().get(i)).getStart().isBefore(previous.getStart()));
+        }
+
+        long pairs = 0;
+        for (int i = 0; i < scheduled.size(); i++) {
+            for (int j = i + 1; j < scheduled.size(); j++) {
+                Event a = scheduled.get(i);
+                Event b = scheduled.get(j);
+                if (a.getStart().isBefore(b.getEnd()) && b.getStart().isBefore(a.getEnd())) {
+                    pairs++;
+                }
+            }
+        }
+        assertEquals(pairs, tasks.findConflicts().size());
+    }
+
+    @Test
+    void delete_keepsStableIdsAndIndexesInSync() throws Exception {
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= 6; i++) {
+            Task task = new Todo("task " + i);
+            task.addTag(i % 2 == 0 ? "#even" : "#odd");
+            tasks.add(task);
+        }
+        assertEquals("[T][ ] task 3 (#odd)", tasks.findTasks(TagQuery.parse("#odd")).getTasks().get(1).toString());
+
+        tasks.delete(tasks.indexOfId(2));
+        tasks.delete(0);
+        tasks.add(new Todo("task 7"));
+
+        assertEquals(5, tasks.size());
+        assertEquals(3, tasks.idOf(0));
+        assertEquals(7, tasks.idOf(4));
+        assertEquals(1, tasks.indexOfId(4));
+        assertThrows(HuhhhException.class, () -> tasks.indexOfId(2));
+        assertThrows(HuhhhException.class, () -> tasks.indexOfId(8));
+        assertEquals("task 3,task 4,task 5,task 6,task 7", descriptionsOf(tasks));
+        assertEquals("task 4,task 6", descriptionsOf(tasks.findTasks(TagQuery.parse("#even"))));
+        assertEquals("task 4,task 6,task 7", descriptionsOf(tasks.findTasks(TagQuery.parse("NOT #odd"))));
+        assertEquals("1. [T][ ] task 3 (#odd) (@3)", tasks.toString().split("\n")[0]);
+    }
+
+    @Test
+    void deleteAll_removesSelectedTasksInOnePass() throws Exception {
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= 8; i++) {
+            Task task = new Todo("task " + i);
+            task.addTag(i % 2 == 0 ? "#even" : "#odd");
+            tasks.add(task);
+        }
+        tasks.mark(1);
+        tasks.mark(5);
+        assertEquals("1,5", Arrays.stream(tasks.indicesMatching(Task::isDone))
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(",")));
+        assertEquals(4, tasks.findTasks(TagQuery.parse("#even")).size());
+
+        List<Task> removed = tasks.deleteAll(new int[] {0, 2, 3, 7});
+
+        assertEquals("task 1,task 3,task 4,task 8", removed.stream()
+                .map(Task::getDescription)
+                .collect(Collectors.joining(",")));
+        assertEquals("task 2,task 5,task 6,task 7", descriptionsOf(tasks));
+        assertEquals("task 2,task 6", descriptionsOf(tasks.findTasks(TagQuery.parse("#even"))));
+        assertEquals(6, tasks.idOf(2));
+        assertFalse(tasks.containsId(4));
+        assertThrows(HuhhhException.class, () -> tasks.deleteAll(new int[] {1, 4}));
+        assertEquals(4, tasks.size());
+    }
+
+    @Test
+    void delete_manyTasks_compactsAndKeepsIdsIndexesAndSnapshotsInSync() throws Exception {
+        TaskList tasks = new TaskList();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= 300; i++) {
+            Task task = new Todo("task " + i);
+            task.addTag(i % 3 == 0 ? "#three" : "#other");
+            tasks.add(task);
+            ids.add(i);
+        }
+        int nextId = 301;
+        Random random = new Random(7);
+        List<Task> snapshot = tasks.snapshot();
+        List<Integer> snapshotIds = new ArrayList<>(ids);
+        for (int step = 0; step < 400; step++) {
+            if (step % 5 == 4) {
+                int id = nextId++;
+                Task task = new Todo("task " + id);
+                task.addTag(id % 3 == 0 ? "#three" : "#other");
+                tasks.add(task);
+                ids.add(id);
+            } else if (step % 7 == 6 && ids.size() > 2) {
+                tasks.deleteAll(new int[] {0, ids.size() / 2});
+                ids.remove(ids.size() / 2);
+                ids.remove(0);
+            } else {
+                int index = random.nextInt(ids.size());
+                assertEquals("task " + ids.get(index), tasks.delete(index).getDescription());
+                ids.remove(index);
+            }
+            if (step % 50 == 0) {
+                snapshot = tasks.snapshot();
+                snapshotIds = new ArrayList<>(ids);
+            }
+        }
+
+        assertEquals(ids.size(), tasks.size());
+        for (int i = 0; i < ids.size(); i++) {
+            int id = ids.get(i);
+            assertEquals(id, tasks.idOf(i));
+            assertEquals(i, tasks.indexOfId(id));
+            assertEquals("task " + id, tasks.getTasks().get(i).getDescription());
+        }
+        for (int id = 1; id <= nextId; id++) {
+            assertEquals(ids.contains(id), tasks.containsId(id));
+        }
+        assertEquals(ids.stream().filter(id -> id % 3 == 0).map(id -> "task " + id).collect(Collectors.joining(",")),
+                descriptionsOf(tasks.findTasks(TagQuery.parse("#three"))));
+        for (int i = 0; i < snapshotIds.size(); i++) {
+            assertEquals("task " + snapshotIds.get(i), snapshot.get(i).getDescription());
+        }
+    }
+
+    @Test
+    void snapshot_isUnaffectedByLaterChanges() throws Exception {
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= 40; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        tasks.delete(0);
+        List<Task> before = tasks.snapshot();
+
+        tasks.mark(0);
+        tasks.tag(1, List.of("#later"));
+        tasks.deleteAll(new int[] {2, 3});
+        tasks.add(new Todo("task 41"));
+        List<Task> after = tasks.snapshot();
+
+        assertEquals(39, before.size());
+        assertEquals("[T][ ] task 2", before.get(0).toString());
+        assertEquals("[T][ ] task 3", before.get(1).toString());
+        assertEquals("[T][ ] task 40", before.get(38).toString());
+        assertEquals(38, after.size());
+        assertEquals("[T][X] task 2", after.get(0).toString());
+        assertEquals("[T][ ] task 3 (#later)", after.get(1).toString());
+        assertEquals("[T][ ] task 6", after.get(2).toString());
+        assertEquals("[T][ ] task 41", after.get(37).toString());
+    }
+
+    @Test
+    void release_lastSnapshot_dropsFrozenCopiesOnNextChange() throws Exception {
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= 3; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        List<Task> first = tasks.snapshot();
+        tasks.mark(0);
+        List<Task> second = tasks.snapshot();
+        TaskList.release(first);
+        TaskList.release(first);
+        tasks.mark(1);
+        assertTrue(tasks.hasVersions());
+
+        TaskList.release(second);
+        assertTrue(tasks.hasVersions());
+        tasks.mark(2);
+        assertFalse(tasks.hasVersions());
+        assertEquals("[T][ ] task 1", first.get(0).toString());
+        assertEquals("[T][X] task 1", second.get(0).toString());
+        assertEquals("[T][ ] task 2", second.get(1).toString());
+
+        tasks.delete(0);
+        List<Task> third = tasks.snapshot();
+        assertEquals("[T][X] task 2,[T][X] task 3", third.stream()
+                .map(Task::toString)
+                .collect(Collectors.joining(",")));
+    }
+
+    @Test
+    void render_showsOnlyTheRequestedRange() throws Exception {
+        TaskList tasks = new TaskList();
+        assertEquals("You have no tasks in your list.", tasks.render(0, 0));
+        for (int i = 1; i <= 5; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        tasks.delete(1);
+
+        assertEquals("2. [T][ ] task 3 (@3)\n3. [T][ ] task 4 (@4)", tasks.render(1, 3));
+        assertEquals(tasks.render(0, 4), tasks.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> tasks.render(3, 5));
+    }
+
+    private static boolean matches(String query, Task task) {
+        boolean isEven = task.hasTag("even");
+        boolean isThree = task.hasTag("three");
+        switch (query) {
+        case "#even AND #three":
+        case "#even #three":
+            return isEven && isThree;
+        case "#even OR #three":
+        case "(#even OR #three) AND NOT #missing":
+            return isEven || isThree;
+        case "NOT #even":
+            return !isEven;
+        case "#three AND NOT #even":
+            return isThree && !isEven;
+        default:
+            return !isEven && !isThree;
+        }
+    }
+}
@@ -2,9 +2,13 @@ package huhhh.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import huhhh.HuhhhException;
@@ -53,4 +57,33 @@ public class TaskTaggingTest {
         assertThrows(HuhhhException.class, () -> t.addTag("#"));
         assertThrows(HuhhhException.class, () -> t.addTag("fun"));
     }
+
+    @Test
+    void tags_keepInsertionOrderAndShareInternedNames() throws HuhhhException {
+        Task first = new Todo("read book");
+        first.addTag("#zeta");
+        first.addTag("#alpha");
+        first.addTag("#mid");
+        first.removeTag("#alpha");
+        first.addTag("#alpha");
+        Task second = new Todo("return book");
+        second.loadTagsFromStorageField("ALPHA,zeta");
+
+        assertEquals("[T][ ] read book (#zeta #mid #alpha)", first.toString());
+        assertEquals(List.of("zeta", "mid", "alpha"), new ArrayList<>(first.getTags()));
+        assertTrue(first.getTags().contains("mid"));
+        assertSame(first.getTags().iterator().next(), second.getTags().toArray()[1]);
+        assertEquals(first.tagIds()[0], second.tagIds()[1]);
+    }
+
+    @Test
+    void parseDescriptionAndTags_separatesTagsFromWords() {
+        Task.ParsedTextWithTags parsed = Task.parseDescriptionAndTags("  read #Work the\treport #q3 #bad! #work ");
+        assertEquals("read the report", parsed.getText());
+        assertEquals(List.of("work", "q3"), new ArrayList<>(parsed.getTags()));
+
+        Task.ParsedTextWithTags blank = Task.parseDescriptionAndTags("   ");
+        assertEquals("", blank.getText());
+        assertTrue(blank.getTags().isEmpty());
+    }
 }
@@ -0,0 +1,127 @@
+package huhhh.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import huhhh.Huhhh;
+import huhhh.storage.Durability;
+
+public class CommandRunnerTest {
+    /**
+     * Records listener calls; the test thread stands in for the JavaFX thread by draining the delivery queue.
+     */
+    private static class RecordingListener implements CommandRunner.Listener {
+        private boolean isReady;
+        private final List<String> replies = new ArrayList<>();
+        private final List<Integer> pendingCounts = new ArrayList<>();
+        private boolean isExit;
+
+        @Override
+        public void onReady() {
+            isReady = true;
+        }
+
+        @Override
+        public void onReply(String reply, boolean isExit) {
+            replies.add(reply);
+            this.isExit = isExit;
+        }
+
+        @Override
+        public void onPendingChanged(int pending) {
+            pendingCounts.add(pending);
+        }
+    }
+
+    private static void deliver(BlockingQueue<Runnable> delivery, int count) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            Runnable task = delivery.poll(10, TimeUnit.SECONDS);
+            assertTrue(task != null, "Timed out waiting for a reply");
+            task.run();
+        }
+    }
+
+    @Test
+    void submit_queuedCommands_repliesArriveInOrder() throws Exception {
+        Path saveFile = Files.createTempDirectory("huhhh-runner-").resolve("huhhh.txt");
+        Huhhh huhhh = new Huhhh(saveFile.toString(), Durability.PER_COMMAND);
+        BlockingQueue<Runnable> delivery = new LinkedBlockingQueue<>();
+        RecordingListener listener = new RecordingListener();
+        CommandRunner runner = new CommandRunner(() -> huhhh, delivery::add, listener);
+
+        assertTrue(runner.submit("todo read book"));
+        assertTrue(runner.submit("mark 1"));
+        assertTrue(runner.submit("bye"));
+        assertEquals(List.of(2, 3, 4), listener.pendingCounts);
+
+        deliver(delivery, 4);
+        assertTrue(listener.isReady);
+        assertEquals(3, listener.replies.size());
+        assertTrue(listener.replies.get(0).startsWith("Got it. I've added this task:"));
+        assertTrue(listener.replies.get(1).startsWith("Nice! I've marked this task as done:"));
+        assertEquals("Bye. Hope to see you again soon!", listener.replies.get(2));
+        assertEquals(List.of(2, 3, 4, 3, 2, 1, 0), listener.pendingCounts);
+        assertTrue(listener.isExit);
+
+        runner.close();
+        assertFalse(runner.submit("list"));
+        assertTrue(Files.readString(saveFile).startsWith("T | 1 | read book"));
+    }
+
+    @Test
+    void submit_commandThrows_stillRepliesAndFinishes() throws Exception {
+        Path saveFile = Files.createTempDirectory("huhhh-runner-").resolve("huhhh.txt");
+        Huhhh huhhh = new Huhhh(saveFile.toString(), Durability.PER_COMMAND) {
+            @Override
+            public String getResponse(String input) {
+                if (input.equals("boom")) {
+                    throw new IllegalStateException("broken command");
+                }
+                return super.getResponse(input);
+            }
+        };
+        BlockingQueue<Runnable> delivery = new LinkedBlockingQueue<>();
+        RecordingListener listener = new RecordingListener();
+        CommandRunner runner = new CommandRunner(() -> huhhh, delivery::add, listener);
+
+        assertTrue(runner.submit("boom"));
+        assertTrue(runner.submit("todo read book"));
+        deliver(delivery, 3);
+
+        assertEquals(2, listener.replies.size());
+        assertEquals("Sorry, something went wrong running that command: broken command", listener.replies.get(0));
+        assertTrue(listener.replies.get(1).startsWith("Got it. I've added this task:"));
+        assertEquals(List.of(2, 3, 2, 1, 0), listener.pendingCounts);
+        assertFalse(listener.isExit);
+        runner.close();
+    }
+
+    @Test
+    void constructor_loaderThrows_repliesWithTheErrorAndStillAnswersCommands() throws Exception {
+        BlockingQueue<Runnable> delivery = new LinkedBlockingQueue<>();
+        RecordingListener listener = new RecordingListener();
+        CommandRunner runner = new CommandRunner(() -> {
+            throw new IllegalStateException("disk gone");
+        }, delivery::add, listener);
+
+        assertTrue(runner.submit("list"));
+        deliver(delivery, 2);
+
+        assertTrue(listener.isReady);
+        assertEquals(List.of("Sorry, your tasks could not be loaded: disk gone",
+                "Sorry, your tasks could not be loaded, so commands cannot run."), listener.replies);
+        assertEquals(List.of(2, 1, 0), listener.pendingCounts);
+        runner.close();
+    }
+}
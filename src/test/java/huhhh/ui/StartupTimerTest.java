@@ -0,0 +1,25 @@
+package huhhh.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class StartupTimerTest {
+    @Test
+    void mark_keepsPhasesInOrderAndFirstTimeOnly() throws Exception {
+        StartupTimer timer = new StartupTimer(false);
+        long shown = timer.mark("window shown");
+        Thread.sleep(5);
+        long ready = timer.mark("ready for input");
+        timer.mark("window shown");
+
+        Map<String, Long> phases = timer.getPhases();
+        assertEquals(List.of("window shown", "ready for input"), List.copyOf(phases.keySet()));
+        assertEquals(shown, (long) phases.get("window shown"));
+        assertTrue(ready >= shown + 5);
+    }
+}
@@ -12,6 +12,12 @@ then
     rm ACTUAL.TXT
 fi
 
+# start from an empty task list
+if [ -d "./data" ]
+then
+    rm -r ./data
+fi
+
 # compile the code into the bin folder, terminates if error occurred
 if ! javac -cp ../src/main/java -Xlint:none -d ../bin ../src/main/java/huhhh/*.java ../src/main/java/huhhh/command/*.java ../src/main/java/huhhh/storage/*.java ../src/main/java/huhhh/task/*.java ../src/main/java/huhhh/ui/*.java
 then